@@ -0,0 +1,96 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.kafka.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reaktivity.specification.kafka.internal.KafkaFunctions.KafkaBeginExBuilder.KafkaMergedBeginExBuilder;
+import org.reaktivity.specification.kafka.internal.KafkaFunctions.KafkaDataExBuilder.KafkaMergedDataExBuilder;
+import org.reaktivity.specification.kafka.internal.types.stream.KafkaBeginExFW;
+import org.reaktivity.specification.kafka.internal.types.stream.KafkaDataExFW;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KafkaFlyweightsBenchmark
+{
+    private final KafkaBeginExFW beginExRO = new KafkaBeginExFW();
+    private final KafkaDataExFW dataExRO = new KafkaDataExFW();
+
+    @Param({"1", "16", "64"})
+    public int count;
+
+    private DirectBuffer filters;
+    private DirectBuffer headers;
+
+    @Setup
+    public void init()
+    {
+        final KafkaMergedBeginExBuilder beginEx = KafkaFunctions.beginEx()
+                                                                .typeId(0x01)
+                                                                .merged()
+                                                                    .topic("test");
+        for (int i = 0; i < count; i++)
+        {
+            beginEx.filter()
+                       .key("key-" + i)
+                       .header("name-" + i, "value-" + i)
+                       .headerNot("name-" + i, "other")
+                       .build();
+        }
+        filters = new UnsafeBuffer(beginEx.build().build());
+
+        final KafkaMergedDataExBuilder dataEx = KafkaFunctions.dataEx()
+                                                              .typeId(0x01)
+                                                              .merged()
+                                                                  .timestamp(12345678L)
+                                                                  .partition(0, 1L)
+                                                                  .key("match");
+        for (int i = 0; i < count; i++)
+        {
+            dataEx.header("name-" + i, "value-" + i);
+        }
+        headers = new UnsafeBuffer(dataEx.build().build());
+    }
+
+    @Benchmark
+    public KafkaBeginExFW tryWrapFilters()
+    {
+        return beginExRO.tryWrap(filters, 0, filters.capacity());
+    }
+
+    @Benchmark
+    public KafkaDataExFW tryWrapHeaders()
+    {
+        return dataExRO.tryWrap(headers, 0, headers.capacity());
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.kafka.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reaktivity.specification.kafka.internal.types.stream.KafkaBeginExFW;
+import org.reaktivity.specification.kafka.internal.types.stream.KafkaDataExFW;
+import org.reaktivity.specification.kafka.internal.types.stream.KafkaFlushExFW;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KafkaFunctionsBenchmark
+{
+    private final KafkaBeginExFW beginExRO = new KafkaBeginExFW();
+    private final KafkaDataExFW dataExRO = new KafkaDataExFW();
+    private final KafkaFlushExFW flushExRO = new KafkaFlushExFW();
+
+    private DirectBuffer bootstrapBeginEx;
+    private DirectBuffer metaBeginEx;
+    private DirectBuffer describeBeginEx;
+    private DirectBuffer fetchBeginEx;
+    private DirectBuffer mergedBeginEx;
+    private DirectBuffer produceBeginEx;
+    private DirectBuffer metaDataEx;
+    private DirectBuffer describeDataEx;
+    private DirectBuffer fetchDataEx;
+    private DirectBuffer mergedDataEx;
+    private DirectBuffer produceDataEx;
+    private DirectBuffer fetchFlushEx;
+    private DirectBuffer mergedFlushEx;
+
+    @Setup
+    public void init()
+    {
+        bootstrapBeginEx = new UnsafeBuffer(buildBootstrapBeginEx());
+        metaBeginEx = new UnsafeBuffer(buildMetaBeginEx());
+        describeBeginEx = new UnsafeBuffer(buildDescribeBeginEx());
+        fetchBeginEx = new UnsafeBuffer(buildFetchBeginEx());
+        mergedBeginEx = new UnsafeBuffer(buildMergedBeginEx());
+        produceBeginEx = new UnsafeBuffer(buildProduceBeginEx());
+        metaDataEx = new UnsafeBuffer(buildMetaDataEx());
+        describeDataEx = new UnsafeBuffer(buildDescribeDataEx());
+        fetchDataEx = new UnsafeBuffer(buildFetchDataEx());
+        mergedDataEx = new UnsafeBuffer(buildMergedDataEx());
+        produceDataEx = new UnsafeBuffer(buildProduceDataEx());
+        fetchFlushEx = new UnsafeBuffer(buildFetchFlushEx());
+        mergedFlushEx = new UnsafeBuffer(buildMergedFlushEx());
+    }
+
+    @Benchmark
+    public byte[] buildBootstrapBeginEx()
+    {
+        return KafkaFunctions.beginEx()
+                             .typeId(0x01)
+                             .bootstrap()
+                                 .topic("test")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildMetaBeginEx()
+    {
+        return KafkaFunctions.beginEx()
+                             .typeId(0x01)
+                             .meta()
+                                 .topic("test")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildDescribeBeginEx()
+    {
+        return KafkaFunctions.beginEx()
+                             .typeId(0x01)
+                             .describe()
+                                 .topic("test")
+                                 .config("cleanup.policy")
+                                 .config("max.message.bytes")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildFetchBeginEx()
+    {
+        return KafkaFunctions.beginEx()
+                             .typeId(0x01)
+                             .fetch()
+                                 .topic("test")
+                                 .partition(0, 1L)
+                                 .filter()
+                                     .key("match")
+                                     .header("name", "value")
+                                     .build()
+                                 .isolation("READ_COMMITTED")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildMergedBeginEx()
+    {
+        return KafkaFunctions.beginEx()
+                             .typeId(0x01)
+                             .merged()
+                                 .topic("test")
+                                 .partition(0, 1L)
+                                 .partition(1, 1L)
+                                 .filter()
+                                     .key("match")
+                                     .header("name", "value")
+                                     .build()
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildProduceBeginEx()
+    {
+        return KafkaFunctions.beginEx()
+                             .typeId(0x01)
+                             .produce()
+                                 .transaction("transaction")
+                                 .producerId(1L)
+                                 .topic("test")
+                                 .partition(0, 1L)
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildMetaDataEx()
+    {
+        return KafkaFunctions.dataEx()
+                             .typeId(0x01)
+                             .meta()
+                                 .partition(0, 1)
+                                 .partition(1, 2)
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildDescribeDataEx()
+    {
+        return KafkaFunctions.dataEx()
+                             .typeId(0x01)
+                             .describe()
+                                 .config("cleanup.policy", "compact")
+                                 .config("max.message.bytes", "1000000")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildFetchDataEx()
+    {
+        return KafkaFunctions.dataEx()
+                             .typeId(0x01)
+                             .fetch()
+                                 .deferred(0)
+                                 .timestamp(12345678L)
+                                 .partition(0, 1L, 2L)
+                                 .key("match")
+                                 .header("name", "value")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildMergedDataEx()
+    {
+        return KafkaFunctions.dataEx()
+                             .typeId(0x01)
+                             .merged()
+                                 .deferred(0)
+                                 .timestamp(12345678L)
+                                 .partition(0, 1L, 2L)
+                                 .progress(0, 2L)
+                                 .progress(1, 1L)
+                                 .key("match")
+                                 .header("name", "value")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildProduceDataEx()
+    {
+        return KafkaFunctions.dataEx()
+                             .typeId(0x01)
+                             .produce()
+                                 .deferred(0)
+                                 .timestamp(12345678L)
+                                 .sequence(0)
+                                 .key("match")
+                                 .header("name", "value")
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildFetchFlushEx()
+    {
+        return KafkaFunctions.flushEx()
+                             .typeId(0x01)
+                             .fetch()
+                                 .partition(0, 1L, 2L)
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public byte[] buildMergedFlushEx()
+    {
+        return KafkaFunctions.flushEx()
+                             .typeId(0x01)
+                             .merged()
+                                 .progress(0, 2L)
+                                 .progress(1, 1L)
+                                 .build()
+                             .build();
+    }
+
+    @Benchmark
+    public int wrapBootstrapBeginEx()
+    {
+        return beginExRO.wrap(bootstrapBeginEx, 0, bootstrapBeginEx.capacity()).bootstrap().limit();
+    }
+
+    @Benchmark
+    public int wrapMetaBeginEx()
+    {
+        return beginExRO.wrap(metaBeginEx, 0, metaBeginEx.capacity()).meta().limit();
+    }
+
+    @Benchmark
+    public int wrapDescribeBeginEx()
+    {
+        return beginExRO.wrap(describeBeginEx, 0, describeBeginEx.capacity()).describe().limit();
+    }
+
+    @Benchmark
+    public int wrapFetchBeginEx()
+    {
+        return beginExRO.wrap(fetchBeginEx, 0, fetchBeginEx.capacity()).fetch().limit();
+    }
+
+    @Benchmark
+    public int wrapMergedBeginEx()
+    {
+        return beginExRO.wrap(mergedBeginEx, 0, mergedBeginEx.capacity()).merged().limit();
+    }
+
+    @Benchmark
+    public int wrapProduceBeginEx()
+    {
+        return beginExRO.wrap(produceBeginEx, 0, produceBeginEx.capacity()).produce().limit();
+    }
+
+    @Benchmark
+    public int wrapMetaDataEx()
+    {
+        return dataExRO.wrap(metaDataEx, 0, metaDataEx.capacity()).meta().limit();
+    }
+
+    @Benchmark
+    public int wrapDescribeDataEx()
+    {
+        return dataExRO.wrap(describeDataEx, 0, describeDataEx.capacity()).describe().limit();
+    }
+
+    @Benchmark
+    public int wrapFetchDataEx()
+    {
+        return dataExRO.wrap(fetchDataEx, 0, fetchDataEx.capacity()).fetch().limit();
+    }
+
+    @Benchmark
+    public int wrapMergedDataEx()
+    {
+        return dataExRO.wrap(mergedDataEx, 0, mergedDataEx.capacity()).merged().limit();
+    }
+
+    @Benchmark
+    public int wrapProduceDataEx()
+    {
+        return dataExRO.wrap(produceDataEx, 0, produceDataEx.capacity()).produce().limit();
+    }
+
+    @Benchmark
+    public int wrapFetchFlushEx()
+    {
+        return flushExRO.wrap(fetchFlushEx, 0, fetchFlushEx.capacity()).fetch().limit();
+    }
+
+    @Benchmark
+    public int wrapMergedFlushEx()
+    {
+        return flushExRO.wrap(mergedFlushEx, 0, mergedFlushEx.capacity()).merged().limit();
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.specification.kafka.internal;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.kaazing.k3po.lang.el.BytesMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KafkaMatchersBenchmark
+{
+    private BytesMatcher fetchMatcher;
+    private BytesMatcher produceMatcher;
+    private BytesMatcher mergedMatcher;
+
+    private ByteBuffer fetchDataEx;
+    private ByteBuffer produceDataEx;
+    private ByteBuffer mergedDataEx;
+
+    @Setup
+    public void init()
+    {
+        fetchMatcher = KafkaFunctions.matchDataEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .timestamp(12345678L)
+                                         .partition(0, 1L, 2L)
+                                         .key("match")
+                                         .header("name", "value")
+                                         .build()
+                                     .build();
+
+        fetchDataEx = ByteBuffer.wrap(KafkaFunctions.dataEx()
+                                                    .typeId(0x01)
+                                                    .fetch()
+                                                        .timestamp(12345678L)
+                                                        .partition(0, 1L, 2L)
+                                                        .key("match")
+                                                        .header("name", "value")
+                                                        .build()
+                                                    .build());
+
+        produceMatcher = KafkaFunctions.matchDataEx()
+                                       .typeId(0x01)
+                                       .produce()
+                                           .timestamp(12345678L)
+                                           .sequence(0)
+                                           .key("match")
+                                           .header("name", "value")
+                                           .build()
+                                       .build();
+
+        produceDataEx = ByteBuffer.wrap(KafkaFunctions.dataEx()
+                                                      .typeId(0x01)
+                                                      .produce()
+                                                          .timestamp(12345678L)
+                                                          .sequence(0)
+                                                          .key("match")
+                                                          .header("name", "value")
+                                                          .build()
+                                                      .build());
+
+        mergedMatcher = KafkaFunctions.matchDataEx()
+                                      .typeId(0x01)
+                                      .merged()
+                                          .timestamp(12345678L)
+                                          .partition(0, 1L, 2L)
+                                          .progress(0, 2L)
+                                          .progress(1, 1L)
+                                          .key("match")
+                                          .header("name", "value")
+                                          .build()
+                                      .build();
+
+        mergedDataEx = ByteBuffer.wrap(KafkaFunctions.dataEx()
+                                                     .typeId(0x01)
+                                                     .merged()
+                                                         .timestamp(12345678L)
+                                                         .partition(0, 1L, 2L)
+                                                         .progress(0, 2L)
+                                                         .progress(1, 1L)
+                                                         .key("match")
+                                                         .header("name", "value")
+                                                         .build()
+                                                     .build());
+    }
+
+    @Benchmark
+    public Object matchFetchDataEx() throws Exception
+    {
+        fetchDataEx.rewind();
+        return fetchMatcher.match(fetchDataEx);
+    }
+
+    @Benchmark
+    public Object matchProduceDataEx() throws Exception
+    {
+        produceDataEx.rewind();
+        return produceMatcher.match(produceDataEx);
+    }
+
+    @Benchmark
+    public Object matchMergedDataEx() throws Exception
+    {
+        mergedDataEx.rewind();
+        return mergedMatcher.match(mergedDataEx);
+    }
+}
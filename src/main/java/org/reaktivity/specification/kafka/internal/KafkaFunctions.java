@@ -15,38 +15,60 @@
  */
 package org.reaktivity.specification.kafka.internal;
 
-import static java.lang.Long.highestOneBit;
-import static java.lang.Long.numberOfTrailingZeros;
 import static java.lang.System.currentTimeMillis;
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.agrona.ExpandableArrayBuffer.MAX_ARRAY_LENGTH;
 import static org.reaktivity.specification.kafka.internal.types.KafkaOffsetFW.Builder.DEFAULT_LATEST_OFFSET;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
+import java.util.zip.CRC32C;
 
 import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.kaazing.k3po.lang.el.BytesMatcher;
 import org.kaazing.k3po.lang.el.Function;
 import org.kaazing.k3po.lang.el.spi.FunctionMapperSpi;
 import org.reaktivity.specification.kafka.internal.types.Array32FW;
+import org.reaktivity.specification.kafka.internal.types.Flyweight;
+import org.reaktivity.specification.kafka.internal.types.KafkaAckMode;
+import org.reaktivity.specification.kafka.internal.types.KafkaAge;
+import org.reaktivity.specification.kafka.internal.types.KafkaAgeFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaCapabilities;
+import org.reaktivity.specification.kafka.internal.types.KafkaCompression;
 import org.reaktivity.specification.kafka.internal.types.KafkaConditionFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaDeltaFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaDeltaOpFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaDeltaType;
+import org.reaktivity.specification.kafka.internal.types.KafkaFetchFormat;
 import org.reaktivity.specification.kafka.internal.types.KafkaFilterFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaHeaderFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaHeadersFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaIsolation;
 import org.reaktivity.specification.kafka.internal.types.KafkaKeyFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaMergeOrder;
 import org.reaktivity.specification.kafka.internal.types.KafkaNotFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaOffsetBoundsFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaOffsetFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaOffsetType;
+import org.reaktivity.specification.kafka.internal.types.KafkaRecordFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaSkip;
 import org.reaktivity.specification.kafka.internal.types.KafkaSkipFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaSnapshot;
+import org.reaktivity.specification.kafka.internal.types.KafkaTimestampRangeFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaValueConditionFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaValueFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaValueMatchFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaValuePointerFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaValueSliceFW;
 import org.reaktivity.specification.kafka.internal.types.OctetsFW;
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaApi;
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaBeginExFW;
@@ -65,9 +87,26 @@ import org.reaktivity.specification.kafka.internal.types.stream.KafkaMetaBeginEx
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaMetaDataExFW;
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaProduceBeginExFW;
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaProduceDataExFW;
+import org.reaktivity.specification.kafka.internal.types.stream.KafkaProduceFlushExFW;
 
 public final class KafkaFunctions
 {
+    private static final int RECORD_BATCH_BASE_OFFSET = 0;
+    private static final int RECORD_BATCH_LENGTH = 8;
+    private static final int RECORD_BATCH_LEADER_EPOCH = 12;
+    private static final int RECORD_BATCH_MAGIC = 16;
+    private static final int RECORD_BATCH_CRC = 17;
+    private static final int RECORD_BATCH_ATTRIBUTES = 21;
+    private static final int RECORD_BATCH_LAST_OFFSET_DELTA = 23;
+    private static final int RECORD_BATCH_FIRST_TIMESTAMP = 27;
+    private static final int RECORD_BATCH_MAX_TIMESTAMP = 35;
+    private static final int RECORD_BATCH_PRODUCER_ID = 43;
+    private static final int RECORD_BATCH_PRODUCER_EPOCH = 51;
+    private static final int RECORD_BATCH_BASE_SEQUENCE = 53;
+    private static final int RECORD_BATCH_RECORD_COUNT = 57;
+    private static final int RECORD_BATCH_HEADER_SIZE = 61;
+    private static final byte RECORD_BATCH_MAGIC_V2 = 2;
+
     @Function
     public static KafkaBeginExBuilder beginEx()
     {
@@ -92,6 +131,44 @@ public final class KafkaFunctions
         return new KafkaFlushExBuilder();
     }
 
+    @Function
+    public static KafkaFlushExMatcherBuilder matchFlushEx()
+    {
+        return new KafkaFlushExMatcherBuilder();
+    }
+
+    @Function
+    public static KafkaRecordBatchBuilder recordBatch()
+    {
+        return new KafkaRecordBatchBuilder();
+    }
+
+    @Function
+    public static KafkaRecordBatchMatcherBuilder matchRecordBatch()
+    {
+        return new KafkaRecordBatchMatcherBuilder();
+    }
+
+    @Function
+    public static KafkaBinaryDeltaBuilder binaryDelta()
+    {
+        return new KafkaBinaryDeltaBuilder();
+    }
+
+    @Function
+    public static int sizeof(
+        byte[] bytes)
+    {
+        return bytes.length;
+    }
+
+    @Function
+    public static int asInt(
+        long value)
+    {
+        return (int) value;
+    }
+
     @Function
     public static int length(
         String value)
@@ -124,116 +201,148 @@ public final class KafkaFunctions
         return bytes;
     }
 
+    @Function
+    public static byte[] payload(
+        long seed,
+        int length)
+    {
+        final byte[] bytes = new byte[length];
+        final MutableDirectBuffer buffer = new UnsafeBuffer(bytes);
+        final SplittableRandom random = new SplittableRandom(seed);
+        final int limit = length & ~7;
+        for (int index = 0; index < limit; index += Long.BYTES)
+        {
+            buffer.putLong(index, random.nextLong(), LITTLE_ENDIAN);
+        }
+        if (limit < length)
+        {
+            long bits = random.nextLong();
+            for (int index = limit; index < length; index++)
+            {
+                bytes[index] = (byte) bits;
+                bits >>>= 8;
+            }
+        }
+        return bytes;
+    }
+
+    @Function
+    public static BytesMatcher matchPayload(
+        long seed,
+        int length)
+    {
+        return new KafkaPayloadMatcher(seed, length);
+    }
+
     @Function
     public static long timestamp()
     {
         return currentTimeMillis();
     }
 
+    @Function
+    public static long offset(
+        String type)
+    {
+        return KafkaOffsetType.valueOf(type).value();
+    }
+
     @Function
     public static byte[] varint(
         long value)
     {
         final long bits = (value << 1) ^ (value >> 63);
+        final byte[] bytes = new byte[varintBitsSize(bits)];
+        encodeVarintBits(bits, bytes);
+        return bytes;
+    }
+
+    @Function
+    public static int varintSize(
+        long value)
+    {
+        return varintBitsSize((value << 1) ^ (value >> 63));
+    }
+
+    @Function
+    public static long varintValue(
+        byte[] bytes)
+    {
+        final long bits = decodeVarintBits(bytes, 0, bytes.length, Long.SIZE);
+        return (bits >>> 1) ^ -(bits & 1L);
+    }
+
+    @Function
+    public static BytesMatcher matchVarint()
+    {
+        return KafkaFunctions::matchVarint;
+    }
+
+    @Function
+    public static byte[] uvarint(
+        int value)
+    {
+        final long bits = value & 0xffff_ffffL;
+        final byte[] bytes = new byte[varintBitsSize(bits)];
+        encodeVarintBits(bits, bytes);
+        return bytes;
+    }
+
+    @Function
+    public static int uvarintSize(
+        int value)
+    {
+        return varintBitsSize(value & 0xffff_ffffL);
+    }
+
+    @Function
+    public static int uvarintValue(
+        byte[] bytes)
+    {
+        return (int) decodeVarintBits(bytes, 0, bytes.length, Integer.SIZE);
+    }
+
+    @Function
+    public static BytesMatcher matchUvarint()
+    {
+        return KafkaFunctions::matchUvarint;
+    }
 
-        switch (bits != 0L ? (int) Math.ceil((1 + numberOfTrailingZeros(highestOneBit(bits))) / 7.0) : 1)
+    @Function
+    public static int crc32c(
+        byte[]... values)
+    {
+        final CRC32C crc = new CRC32C();
+        for (byte[] value : values)
         {
-        case 1:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f)
-            };
-        case 2:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f)
-            };
-        case 3:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f)
-            };
-        case 4:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f | 0x80),
-                (byte) ((bits >> 21) & 0x7f)
-            };
-        case 5:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f | 0x80),
-                (byte) ((bits >> 21) & 0x7f | 0x80),
-                (byte) ((bits >> 28) & 0x7f)
-            };
-        case 6:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f | 0x80),
-                (byte) ((bits >> 21) & 0x7f | 0x80),
-                (byte) ((bits >> 28) & 0x7f | 0x80),
-                (byte) ((bits >> 35) & 0x7f)
-            };
-        case 7:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f | 0x80),
-                (byte) ((bits >> 21) & 0x7f | 0x80),
-                (byte) ((bits >> 28) & 0x7f | 0x80),
-                (byte) ((bits >> 35) & 0x7f | 0x80),
-                (byte) ((bits >> 42) & 0x7f)
-            };
-        case 8:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f | 0x80),
-                (byte) ((bits >> 21) & 0x7f | 0x80),
-                (byte) ((bits >> 28) & 0x7f | 0x80),
-                (byte) ((bits >> 35) & 0x7f | 0x80),
-                (byte) ((bits >> 42) & 0x7f | 0x80),
-                (byte) ((bits >> 49) & 0x7f),
-            };
-        case 9:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f | 0x80),
-                (byte) ((bits >> 21) & 0x7f | 0x80),
-                (byte) ((bits >> 28) & 0x7f | 0x80),
-                (byte) ((bits >> 35) & 0x7f | 0x80),
-                (byte) ((bits >> 42) & 0x7f | 0x80),
-                (byte) ((bits >> 49) & 0x7f | 0x80),
-                (byte) ((bits >> 56) & 0x7f),
-            };
-        default:
-            return new byte[]
-            {
-                (byte) ((bits >> 0) & 0x7f | 0x80),
-                (byte) ((bits >> 7) & 0x7f | 0x80),
-                (byte) ((bits >> 14) & 0x7f | 0x80),
-                (byte) ((bits >> 21) & 0x7f | 0x80),
-                (byte) ((bits >> 28) & 0x7f | 0x80),
-                (byte) ((bits >> 35) & 0x7f | 0x80),
-                (byte) ((bits >> 42) & 0x7f | 0x80),
-                (byte) ((bits >> 49) & 0x7f | 0x80),
-                (byte) ((bits >> 56) & 0x7f | 0x80),
-                (byte) ((bits >> 63) & 0x01)
-            };
+            crc.update(value);
         }
+        return (int) crc.getValue();
+    }
+
+    @Function
+    public static BytesMatcher matchCrc32c(
+        int length)
+    {
+        final CRC32C crc = new CRC32C();
+        return byteBuf -> matchCrc32c(byteBuf, length, crc);
+    }
+
+    @Function
+    public static int partition(
+        String key,
+        int partitionCount)
+    {
+        final byte[] bytes = key.getBytes(UTF_8);
+        return (murmur2(bytes) & 0x7fff_ffff) % partitionCount;
+    }
+
+    @Function
+    public static KafkaStickyPartitioner stickyPartitioner(
+        int partitionCount,
+        long seed)
+    {
+        return new KafkaStickyPartitioner(partitionCount, seed);
     }
 
     public abstract static class KafkaHeadersBuilder<T>
@@ -243,10 +352,10 @@ public final class KafkaFunctions
         private final DirectBuffer valueRO = new UnsafeBuffer(0, 0);
 
         private KafkaHeadersBuilder(
+            MutableDirectBuffer headersBuffer,
             String name)
         {
-            MutableDirectBuffer buffer = new UnsafeBuffer(new byte[1024]);
-            headersRW.wrap(buffer, 0, buffer.capacity());
+            headersRW.wrap(headersBuffer, 0, MAX_ARRAY_LENGTH);
             nameRO.wrap(name.getBytes(UTF_8));
 
             headersRW.nameLen(nameRO.capacity())
@@ -337,11 +446,14 @@ public final class KafkaFunctions
         private final DirectBuffer keyRO = new UnsafeBuffer(0, 0);
         private final DirectBuffer nameRO = new UnsafeBuffer(0, 0);
         private final DirectBuffer valueRO = new UnsafeBuffer(0, 0);
+        private final MutableDirectBuffer headersBuffer;
 
-        private KafkaFilterBuilder()
+        private KafkaFilterBuilder(
+            MutableDirectBuffer filterBuffer,
+            MutableDirectBuffer headersBuffer)
         {
-            MutableDirectBuffer filterBuffer = new UnsafeBuffer(new byte[1024]);
-            filterRW.wrap(filterBuffer, 0, filterBuffer.capacity());
+            this.headersBuffer = headersBuffer;
+            filterRW.wrap(filterBuffer, 0, MAX_ARRAY_LENGTH);
         }
 
         public KafkaFilterBuilder<T> key(
@@ -388,7 +500,7 @@ public final class KafkaFunctions
         public KafkaHeadersBuilder<KafkaFilterBuilder<T>> headers(
             String name)
         {
-            return new KafkaHeadersBuilder<>(name)
+            return new KafkaHeadersBuilder<>(headersBuffer, name)
             {
                 @Override
                 protected KafkaFilterBuilder<T> build(
@@ -400,6 +512,66 @@ public final class KafkaFunctions
             };
         }
 
+        public KafkaFilterBuilder<T> age(
+            String age)
+        {
+            filterRW.conditionsItem(c -> c.age(a -> a.set(KafkaAge.valueOf(age))));
+            return this;
+        }
+
+        public KafkaFilterBuilder<T> timestamp(
+            long from,
+            long to)
+        {
+            filterRW.conditionsItem(c -> c.timestamp(t -> t.from(from)
+                                                           .to(to)));
+            return this;
+        }
+
+        public KafkaFilterBuilder<T> keyPrefix(
+            String prefix)
+        {
+            keyRO.wrap(prefix.getBytes(UTF_8));
+            filterRW.conditionsItem(c -> c.keyPrefix(k -> k.length(keyRO.capacity())
+                                                           .value(keyRO, 0, keyRO.capacity())));
+            return this;
+        }
+
+        public KafkaFilterBuilder<T> headerPrefix(
+            String name,
+            String prefix)
+        {
+            nameRO.wrap(name.getBytes(UTF_8));
+            valueRO.wrap(prefix.getBytes(UTF_8));
+            filterRW.conditionsItem(c -> c.headerPrefix(h -> h.nameLen(nameRO.capacity())
+                                                              .name(nameRO, 0, nameRO.capacity())
+                                                              .valueLen(valueRO.capacity())
+                                                              .value(valueRO, 0, valueRO.capacity())));
+            return this;
+        }
+
+        public KafkaFilterBuilder<T> value(
+            String path,
+            String value)
+        {
+            valueRO.wrap(value.getBytes(UTF_8));
+            filterRW.conditionsItem(c -> c.value(v -> v.pointer(p -> p.path(path)
+                                                                      .length(valueRO.capacity())
+                                                                      .value(valueRO, 0, valueRO.capacity()))));
+            return this;
+        }
+
+        public KafkaFilterBuilder<T> valueAt(
+            int position,
+            String value)
+        {
+            valueRO.wrap(value.getBytes(UTF_8));
+            filterRW.conditionsItem(c -> c.value(v -> v.slice(s -> s.position(position)
+                                                                      .length(valueRO.capacity())
+                                                                      .value(valueRO, 0, valueRO.capacity()))));
+            return this;
+        }
+
         public KafkaFilterBuilder<T> keyNot(
             String key)
         {
@@ -511,91 +683,357 @@ public final class KafkaFunctions
                                         .name(headers.name())
                                         .values(values));
                 break;
+            case KafkaConditionFW.KIND_AGE:
+                final KafkaAgeFW age = condition.age();
+                builder.age(ab -> ab.set(age.get()));
+                break;
+            case KafkaConditionFW.KIND_TIMESTAMP:
+                final KafkaTimestampRangeFW timestamp = condition.timestamp();
+                builder.timestamp(tb -> tb.from(timestamp.from())
+                                          .to(timestamp.to()));
+                break;
+            case KafkaConditionFW.KIND_KEY_PREFIX:
+                final KafkaKeyFW keyPrefix = condition.keyPrefix();
+                builder.keyPrefix(kb -> kb.length(keyPrefix.length())
+                                          .value(keyPrefix.value()));
+                break;
+            case KafkaConditionFW.KIND_HEADER_PREFIX:
+                final KafkaHeaderFW headerPrefix = condition.headerPrefix();
+                builder.headerPrefix(hb -> hb.nameLen(headerPrefix.nameLen())
+                                             .name(headerPrefix.name())
+                                             .valueLen(headerPrefix.valueLen())
+                                             .value(headerPrefix.value()));
+                break;
+            case KafkaConditionFW.KIND_VALUE:
+                final KafkaValueConditionFW value = condition.value();
+                builder.value(vb -> set(vb, value));
+                break;
+            }
+        }
+
+        private void set(
+            KafkaValueConditionFW.Builder builder,
+            KafkaValueConditionFW value)
+        {
+            switch (value.kind())
+            {
+            case KafkaValueConditionFW.KIND_POINTER:
+                final KafkaValuePointerFW pointer = value.pointer();
+                builder.pointer(pb -> pb.path(pointer.path())
+                                        .length(pointer.length())
+                                        .value(pointer.value()));
+                break;
+            case KafkaValueConditionFW.KIND_SLICE:
+                final KafkaValueSliceFW slice = value.slice();
+                builder.slice(sb -> sb.position(slice.position())
+                                      .length(slice.length())
+                                      .value(slice.value()));
+                break;
             }
         }
     }
 
-    public static final class KafkaBeginExBuilder
+    public abstract static class KafkaRecordBuilder<T>
     {
-        private final MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[1024 * 8]);
+        private final KafkaRecordFW.Builder recordRW = new KafkaRecordFW.Builder();
+        private final Array32FW.Builder<KafkaHeaderFW.Builder, KafkaHeaderFW> headersRW =
+                new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW());
+        private final DirectBuffer keyRO = new UnsafeBuffer(0, 0);
+        private final DirectBuffer nameRO = new UnsafeBuffer(0, 0);
+        private final DirectBuffer valueRO = new UnsafeBuffer(0, 0);
 
-        private final KafkaBeginExFW beginExRO = new KafkaBeginExFW();
+        private final MutableDirectBuffer recordBuffer;
+        private final int valueOffset;
 
-        private final KafkaBeginExFW.Builder beginExRW = new KafkaBeginExFW.Builder();
+        private long partitionOffset;
+        private long timestampDelta;
+        private int valueLength = -1;
+        private String key;
 
-        private KafkaBeginExBuilder()
+        private KafkaRecordBuilder(
+            MutableDirectBuffer recordBuffer,
+            MutableDirectBuffer headersBuffer,
+            int valueOffset)
         {
-            beginExRW.wrap(writeBuffer, 0, writeBuffer.capacity());
+            this.recordBuffer = recordBuffer;
+            this.valueOffset = valueOffset;
+            headersRW.wrap(headersBuffer, 0, MAX_ARRAY_LENGTH);
         }
 
-        public KafkaBeginExBuilder typeId(
-            int typeId)
+        public KafkaRecordBuilder<T> offset(
+            long partitionOffset)
         {
-            beginExRW.typeId(typeId);
+            this.partitionOffset = partitionOffset;
             return this;
         }
 
-        public KafkaBootstrapBeginExBuilder bootstrap()
+        public KafkaRecordBuilder<T> timestampDelta(
+            long timestampDelta)
         {
-            beginExRW.kind(KafkaApi.BOOTSTRAP.value());
+            this.timestampDelta = timestampDelta;
+            return this;
+        }
 
-            return new KafkaBootstrapBeginExBuilder();
+        public KafkaRecordBuilder<T> key(
+            String key)
+        {
+            this.key = key;
+            return this;
         }
 
-        public KafkaMergedBeginExBuilder merged()
+        public KafkaRecordBuilder<T> valueLength(
+            int valueLength)
         {
-            beginExRW.kind(KafkaApi.MERGED.value());
+            this.valueLength = valueLength;
+            return this;
+        }
 
-            return new KafkaMergedBeginExBuilder();
+        public KafkaRecordBuilder<T> header(
+            String name,
+            String value)
+        {
+            if (value == null)
+            {
+                nameRO.wrap(name.getBytes(UTF_8));
+                headersRW.item(h -> h.nameLen(nameRO.capacity())
+                                     .name(nameRO, 0, nameRO.capacity())
+                                     .valueLen(-1)
+                                     .value((OctetsFW) null));
+            }
+            else
+            {
+                nameRO.wrap(name.getBytes(UTF_8));
+                valueRO.wrap(value.getBytes(UTF_8));
+                headersRW.item(h -> h.nameLen(nameRO.capacity())
+                                     .name(nameRO, 0, nameRO.capacity())
+                                     .valueLen(valueRO.capacity())
+                                     .value(valueRO, 0, valueRO.capacity()));
+            }
+            return this;
         }
 
-        public KafkaFetchBeginExBuilder fetch()
+        public T build()
         {
-            beginExRW.kind(KafkaApi.FETCH.value());
+            recordRW.wrap(recordBuffer, 0, MAX_ARRAY_LENGTH)
+                    .partitionOffset(partitionOffset)
+                    .timestampDelta(timestampDelta)
+                    .valueOffset(valueOffset)
+                    .valueLength(valueLength);
 
-            return new KafkaFetchBeginExBuilder();
+            if (key == null)
+            {
+                recordRW.key(k -> k.length(-1)
+                                   .value((OctetsFW) null));
+            }
+            else
+            {
+                keyRO.wrap(key.getBytes(UTF_8));
+                recordRW.key(k -> k.length(keyRO.capacity())
+                                   .value(keyRO, 0, keyRO.capacity()));
+            }
+
+            final KafkaRecordFW record = recordRW.headers(headersRW.build()).build();
+            return build(record);
         }
 
-        public KafkaMetaBeginExBuilder meta()
+        protected abstract T build(
+            KafkaRecordFW record);
+
+        protected void set(
+            KafkaRecordFW.Builder builder,
+            KafkaRecordFW record)
         {
-            beginExRW.kind(KafkaApi.META.value());
+            builder.partitionOffset(record.partitionOffset())
+                   .timestampDelta(record.timestampDelta())
+                   .valueOffset(record.valueOffset())
+                   .valueLength(record.valueLength())
+                   .key(record.key())
+                   .headers(record.headers());
+        }
+    }
 
-            return new KafkaMetaBeginExBuilder();
+    public abstract static class KafkaBatchRecordBuilder<T>
+    {
+        private final KafkaBatchRecord record;
+
+        private KafkaBatchRecordBuilder(
+            int offsetDelta)
+        {
+            this.record = new KafkaBatchRecord(offsetDelta);
         }
 
-        public KafkaDescribeBeginExBuilder describe()
+        public KafkaBatchRecordBuilder<T> offsetDelta(
+            int offsetDelta)
         {
-            beginExRW.kind(KafkaApi.DESCRIBE.value());
+            record.offsetDelta = offsetDelta;
+            return this;
+        }
 
-            return new KafkaDescribeBeginExBuilder();
+        public KafkaBatchRecordBuilder<T> timestampDelta(
+            long timestampDelta)
+        {
+            record.timestampDelta = timestampDelta;
+            return this;
         }
 
-        public KafkaProduceBeginExBuilder produce()
+        public KafkaBatchRecordBuilder<T> key(
+            String key)
         {
-            beginExRW.kind(KafkaApi.PRODUCE.value());
+            record.key = key != null ? key.getBytes(UTF_8) : null;
+            return this;
+        }
 
-            return new KafkaProduceBeginExBuilder();
+        public KafkaBatchRecordBuilder<T> value(
+            String value)
+        {
+            record.value = value != null ? value.getBytes(UTF_8) : null;
+            return this;
         }
 
-        public byte[] build()
+        public KafkaBatchRecordBuilder<T> valueBytes(
+            byte[] value)
         {
-            final KafkaBeginExFW beginEx = beginExRO;
-            final byte[] array = new byte[beginEx.sizeof()];
-            beginEx.buffer().getBytes(beginEx.offset(), array);
-            return array;
+            record.value = value;
+            return this;
         }
 
-        public final class KafkaBootstrapBeginExBuilder
+        public KafkaBatchRecordBuilder<T> header(
+            String name,
+            String value)
         {
-            private final KafkaBootstrapBeginExFW.Builder bootstrapBeginExRW = new KafkaBootstrapBeginExFW.Builder();
+            record.headerNames.add(name.getBytes(UTF_8));
+            record.headerValues.add(value != null ? value.getBytes(UTF_8) : null);
+            return this;
+        }
 
-            private KafkaBootstrapBeginExBuilder()
-            {
-                bootstrapBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_BOOTSTRAP, writeBuffer.capacity());
-            }
+        public T build()
+        {
+            return build(record);
+        }
 
-            public KafkaBootstrapBeginExBuilder topic(
-                String topic)
+        protected abstract T build(
+            KafkaBatchRecord record);
+    }
+
+    private static final class KafkaBatchRecord
+    {
+        private final List<byte[]> headerNames = new ArrayList<>();
+        private final List<byte[]> headerValues = new ArrayList<>();
+
+        private int offsetDelta;
+        private long timestampDelta;
+        private byte[] key;
+        private byte[] value;
+
+        private KafkaBatchRecord(
+            int offsetDelta)
+        {
+            this.offsetDelta = offsetDelta;
+        }
+
+        private int encode(
+            MutableDirectBuffer buffer,
+            int offset)
+        {
+            buffer.putByte(offset, (byte) 0x00);
+            int progress = offset + Byte.BYTES;
+            progress = putVarint(buffer, progress, timestampDelta);
+            progress = putVarint(buffer, progress, offsetDelta);
+            progress = putVarintBytes(buffer, progress, key);
+            progress = putVarintBytes(buffer, progress, value);
+            progress = putVarint(buffer, progress, headerNames.size());
+            for (int i = 0; i < headerNames.size(); i++)
+            {
+                progress = putVarintBytes(buffer, progress, headerNames.get(i));
+                progress = putVarintBytes(buffer, progress, headerValues.get(i));
+            }
+            return progress - offset;
+        }
+    }
+
+    public static final class KafkaBeginExBuilder
+    {
+        private final MutableDirectBuffer writeBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer filterBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer headersBuffer = new ExpandableArrayBuffer();
+
+        private final KafkaBeginExFW beginExRO = new KafkaBeginExFW();
+
+        private final KafkaBeginExFW.Builder beginExRW = new KafkaBeginExFW.Builder();
+
+        private KafkaBeginExBuilder()
+        {
+            beginExRW.wrap(writeBuffer, 0, MAX_ARRAY_LENGTH);
+        }
+
+        public KafkaBeginExBuilder typeId(
+            int typeId)
+        {
+            beginExRW.typeId(typeId);
+            return this;
+        }
+
+        public KafkaBootstrapBeginExBuilder bootstrap()
+        {
+            beginExRW.kind(KafkaApi.BOOTSTRAP.value());
+
+            return new KafkaBootstrapBeginExBuilder();
+        }
+
+        public KafkaMergedBeginExBuilder merged()
+        {
+            beginExRW.kind(KafkaApi.MERGED.value());
+
+            return new KafkaMergedBeginExBuilder();
+        }
+
+        public KafkaFetchBeginExBuilder fetch()
+        {
+            beginExRW.kind(KafkaApi.FETCH.value());
+
+            return new KafkaFetchBeginExBuilder();
+        }
+
+        public KafkaMetaBeginExBuilder meta()
+        {
+            beginExRW.kind(KafkaApi.META.value());
+
+            return new KafkaMetaBeginExBuilder();
+        }
+
+        public KafkaDescribeBeginExBuilder describe()
+        {
+            beginExRW.kind(KafkaApi.DESCRIBE.value());
+
+            return new KafkaDescribeBeginExBuilder();
+        }
+
+        public KafkaProduceBeginExBuilder produce()
+        {
+            beginExRW.kind(KafkaApi.PRODUCE.value());
+
+            return new KafkaProduceBeginExBuilder();
+        }
+
+        public byte[] build()
+        {
+            final KafkaBeginExFW beginEx = beginExRO;
+            final byte[] array = new byte[beginEx.sizeof()];
+            beginEx.buffer().getBytes(beginEx.offset(), array);
+            return array;
+        }
+
+        public final class KafkaBootstrapBeginExBuilder
+        {
+            private final KafkaBootstrapBeginExFW.Builder bootstrapBeginExRW = new KafkaBootstrapBeginExFW.Builder();
+
+            private KafkaBootstrapBeginExBuilder()
+            {
+                bootstrapBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_BOOTSTRAP, MAX_ARRAY_LENGTH);
+            }
+
+            public KafkaBootstrapBeginExBuilder topic(
+                String topic)
             {
                 bootstrapBeginExRW.topic(topic);
                 return this;
@@ -615,7 +1053,7 @@ public final class KafkaFunctions
 
             private KafkaMergedBeginExBuilder()
             {
-                mergedBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_MERGED, writeBuffer.capacity());
+                mergedBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_MERGED, MAX_ARRAY_LENGTH);
             }
 
             public KafkaMergedBeginExBuilder capabilities(
@@ -653,7 +1091,7 @@ public final class KafkaFunctions
 
             public KafkaFilterBuilder<KafkaMergedBeginExBuilder> filter()
             {
-                return new KafkaFilterBuilder<>()
+                return new KafkaFilterBuilder<>(filterBuffer, headersBuffer)
                 {
 
                     @Override
@@ -673,6 +1111,69 @@ public final class KafkaFunctions
                 return this;
             }
 
+            public KafkaMergedBeginExBuilder format(
+                String format)
+            {
+                mergedBeginExRW.format(f -> f.set(KafkaFetchFormat.valueOf(format)));
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder maxWait(
+                int maxWait)
+            {
+                mergedBeginExRW.maxWait(maxWait);
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder minBytes(
+                int minBytes)
+            {
+                mergedBeginExRW.minBytes(minBytes);
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder maxBytes(
+                int maxBytes)
+            {
+                mergedBeginExRW.maxBytes(maxBytes);
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder partitionMaxBytes(
+                int partitionMaxBytes)
+            {
+                mergedBeginExRW.partitionMaxBytes(partitionMaxBytes);
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder isolation(
+                String isolation)
+            {
+                mergedBeginExRW.isolation(i -> i.set(KafkaIsolation.valueOf(isolation)));
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder timestamp(
+                long timestamp)
+            {
+                mergedBeginExRW.timestamp(timestamp);
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder order(
+                String order)
+            {
+                mergedBeginExRW.order(o -> o.set(KafkaMergeOrder.valueOf(order)));
+                return this;
+            }
+
+            public KafkaMergedBeginExBuilder watermarkDelay(
+                int watermarkDelay)
+            {
+                mergedBeginExRW.watermarkDelay(watermarkDelay);
+                return this;
+            }
+
             public KafkaBeginExBuilder build()
             {
                 final KafkaMergedBeginExFW mergedBeginEx = mergedBeginExRW.build();
@@ -687,7 +1188,7 @@ public final class KafkaFunctions
 
             private KafkaFetchBeginExBuilder()
             {
-                fetchBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_FETCH, writeBuffer.capacity());
+                fetchBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_FETCH, MAX_ARRAY_LENGTH);
             }
 
             public KafkaFetchBeginExBuilder topic(
@@ -718,7 +1219,7 @@ public final class KafkaFunctions
 
             public KafkaFilterBuilder<KafkaFetchBeginExBuilder> filter()
             {
-                return new KafkaFilterBuilder<>()
+                return new KafkaFilterBuilder<>(filterBuffer, headersBuffer)
                 {
 
                     @Override
@@ -738,6 +1239,55 @@ public final class KafkaFunctions
                 return this;
             }
 
+            public KafkaFetchBeginExBuilder format(
+                String format)
+            {
+                fetchBeginExRW.format(f -> f.set(KafkaFetchFormat.valueOf(format)));
+                return this;
+            }
+
+            public KafkaFetchBeginExBuilder maxWait(
+                int maxWait)
+            {
+                fetchBeginExRW.maxWait(maxWait);
+                return this;
+            }
+
+            public KafkaFetchBeginExBuilder minBytes(
+                int minBytes)
+            {
+                fetchBeginExRW.minBytes(minBytes);
+                return this;
+            }
+
+            public KafkaFetchBeginExBuilder maxBytes(
+                int maxBytes)
+            {
+                fetchBeginExRW.maxBytes(maxBytes);
+                return this;
+            }
+
+            public KafkaFetchBeginExBuilder partitionMaxBytes(
+                int partitionMaxBytes)
+            {
+                fetchBeginExRW.partitionMaxBytes(partitionMaxBytes);
+                return this;
+            }
+
+            public KafkaFetchBeginExBuilder isolation(
+                String isolation)
+            {
+                fetchBeginExRW.isolation(i -> i.set(KafkaIsolation.valueOf(isolation)));
+                return this;
+            }
+
+            public KafkaFetchBeginExBuilder timestamp(
+                long timestamp)
+            {
+                fetchBeginExRW.timestamp(timestamp);
+                return this;
+            }
+
             public KafkaBeginExBuilder build()
             {
                 final KafkaFetchBeginExFW fetchBeginEx = fetchBeginExRW.build();
@@ -752,7 +1302,7 @@ public final class KafkaFunctions
 
             private KafkaMetaBeginExBuilder()
             {
-                metaBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_META, writeBuffer.capacity());
+                metaBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_META, MAX_ARRAY_LENGTH);
             }
 
             public KafkaMetaBeginExBuilder topic(
@@ -776,7 +1326,7 @@ public final class KafkaFunctions
 
             private KafkaDescribeBeginExBuilder()
             {
-                describeBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_DESCRIBE, writeBuffer.capacity());
+                describeBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_DESCRIBE, MAX_ARRAY_LENGTH);
             }
 
             public KafkaDescribeBeginExBuilder topic(
@@ -809,7 +1359,7 @@ public final class KafkaFunctions
 
             private KafkaProduceBeginExBuilder()
             {
-                produceBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_PRODUCE, writeBuffer.capacity());
+                produceBeginExRW.wrap(writeBuffer, KafkaBeginExFW.FIELD_OFFSET_PRODUCE, MAX_ARRAY_LENGTH);
             }
 
             public KafkaProduceBeginExBuilder transaction(
@@ -828,6 +1378,14 @@ public final class KafkaFunctions
                 return this;
             }
 
+            public KafkaProduceBeginExBuilder producerEpoch(
+                short producerEpoch)
+            {
+                ensureTransactionSet();
+                produceBeginExRW.producerEpoch(producerEpoch);
+                return this;
+            }
+
             public KafkaProduceBeginExBuilder topic(
                 String topic)
             {
@@ -862,6 +1420,41 @@ public final class KafkaFunctions
                 return this;
             }
 
+            public KafkaProduceBeginExBuilder compression(
+                String compression)
+            {
+                produceBeginExRW.compression(c -> c.set(KafkaCompression.valueOf(compression)));
+                return this;
+            }
+
+            public KafkaProduceBeginExBuilder acks(
+                String acks)
+            {
+                produceBeginExRW.acks(a -> a.set(KafkaAckMode.valueOf(acks)));
+                return this;
+            }
+
+            public KafkaProduceBeginExBuilder timeout(
+                int timeout)
+            {
+                produceBeginExRW.timeout(timeout);
+                return this;
+            }
+
+            public KafkaProduceBeginExBuilder linger(
+                int linger)
+            {
+                produceBeginExRW.linger(linger);
+                return this;
+            }
+
+            public KafkaProduceBeginExBuilder batchSize(
+                int batchSize)
+            {
+                produceBeginExRW.batchSize(batchSize);
+                return this;
+            }
+
             public KafkaBeginExBuilder build()
             {
                 final KafkaProduceBeginExFW produceBeginEx = produceBeginExRW.build();
@@ -881,7 +1474,9 @@ public final class KafkaFunctions
 
     public static final class KafkaDataExBuilder
     {
-        private final MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[1024 * 8]);
+        private final MutableDirectBuffer writeBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer recordBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer headersBuffer = new ExpandableArrayBuffer();
 
         private final KafkaDataExFW dataExRO = new KafkaDataExFW();
 
@@ -889,7 +1484,7 @@ public final class KafkaFunctions
 
         private KafkaDataExBuilder()
         {
-            dataExRW.wrap(writeBuffer, 0, writeBuffer.capacity());
+            dataExRW.wrap(writeBuffer, 0, MAX_ARRAY_LENGTH);
         }
 
         public KafkaDataExBuilder typeId(
@@ -950,9 +1545,11 @@ public final class KafkaFunctions
 
             private final KafkaFetchDataExFW.Builder fetchDataExRW = new KafkaFetchDataExFW.Builder();
 
+            private int recordsValueLimit;
+
             private KafkaFetchDataExBuilder()
             {
-                fetchDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_FETCH, writeBuffer.capacity());
+                fetchDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_FETCH, MAX_ARRAY_LENGTH);
             }
 
             public KafkaFetchDataExBuilder deferred(
@@ -1038,6 +1635,28 @@ public final class KafkaFunctions
                 return this;
             }
 
+            public KafkaRecordBuilder<KafkaFetchDataExBuilder> record()
+            {
+                return new KafkaRecordBuilder<>(recordBuffer, headersBuffer, recordsValueLimit)
+                {
+                    @Override
+                    protected KafkaFetchDataExBuilder build(
+                        KafkaRecordFW record)
+                    {
+                        fetchDataExRW.recordsItem(rb -> set(rb, record));
+                        recordsValueLimit = record.valueOffset() + Math.max(record.valueLength(), 0);
+                        return KafkaFetchDataExBuilder.this;
+                    }
+                };
+            }
+
+            public KafkaFetchDataExBuilder compression(
+                String compression)
+            {
+                fetchDataExRW.compression(c -> c.set(KafkaCompression.valueOf(compression)));
+                return this;
+            }
+
             public KafkaDataExBuilder build()
             {
                 final KafkaFetchDataExFW fetchDataEx = fetchDataExRW.build();
@@ -1056,7 +1675,7 @@ public final class KafkaFunctions
 
             private KafkaMergedDataExBuilder()
             {
-                mergedDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_MERGED, writeBuffer.capacity());
+                mergedDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_MERGED, MAX_ARRAY_LENGTH);
             }
 
             public KafkaMergedDataExBuilder deferred(
@@ -1260,7 +1879,7 @@ public final class KafkaFunctions
 
             private KafkaMetaDataExBuilder()
             {
-                metaDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_META, writeBuffer.capacity());
+                metaDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_META, MAX_ARRAY_LENGTH);
             }
 
             public KafkaMetaDataExBuilder partition(
@@ -1285,7 +1904,7 @@ public final class KafkaFunctions
 
             private KafkaDescribeDataExBuilder()
             {
-                describeDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_DESCRIBE, writeBuffer.capacity());
+                describeDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_DESCRIBE, MAX_ARRAY_LENGTH);
             }
 
             public KafkaDescribeDataExBuilder config(
@@ -1314,7 +1933,7 @@ public final class KafkaFunctions
 
             private KafkaProduceDataExBuilder()
             {
-                produceDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_DESCRIBE, writeBuffer.capacity());
+                produceDataExRW.wrap(writeBuffer, KafkaDataExFW.FIELD_OFFSET_DESCRIBE, MAX_ARRAY_LENGTH);
             }
 
             public KafkaProduceDataExBuilder deferred(
@@ -1390,7 +2009,10 @@ public final class KafkaFunctions
 
     public static final class KafkaFlushExBuilder
     {
-        private final MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[1024 * 8]);
+        private final MutableDirectBuffer writeBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer filterBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer headersBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer boundsBuffer = new ExpandableArrayBuffer();
 
         private final KafkaFlushExFW flushExRO = new KafkaFlushExFW();
 
@@ -1398,7 +2020,7 @@ public final class KafkaFunctions
 
         private KafkaFlushExBuilder()
         {
-            flushExRW.wrap(writeBuffer, 0, writeBuffer.capacity());
+            flushExRW.wrap(writeBuffer, 0, MAX_ARRAY_LENGTH);
         }
 
         public KafkaFlushExBuilder typeId(
@@ -1422,6 +2044,13 @@ public final class KafkaFunctions
             return new KafkaFetchFlushExBuilder();
         }
 
+        public KafkaProduceFlushExBuilder produce()
+        {
+            flushExRW.kind(KafkaApi.PRODUCE.value());
+
+            return new KafkaProduceFlushExBuilder();
+        }
+
         public byte[] build()
         {
             final KafkaFlushExFW flushEx = flushExRO;
@@ -1434,9 +2063,11 @@ public final class KafkaFunctions
         {
             private final KafkaMergedFlushExFW.Builder mergedFlushExRW = new KafkaMergedFlushExFW.Builder();
 
+            private Array32FW.Builder<KafkaOffsetBoundsFW.Builder, KafkaOffsetBoundsFW> boundsRW;
+
             private KafkaMergedFlushExBuilder()
             {
-                mergedFlushExRW.wrap(writeBuffer, KafkaFlushExFW.FIELD_OFFSET_FETCH, writeBuffer.capacity());
+                mergedFlushExRW.wrap(writeBuffer, KafkaFlushExFW.FIELD_OFFSET_FETCH, MAX_ARRAY_LENGTH);
             }
 
             public KafkaMergedFlushExBuilder progress(
@@ -1456,6 +2087,26 @@ public final class KafkaFunctions
                 return this;
             }
 
+            public KafkaMergedFlushExBuilder progress(
+                int partitionId,
+                long offset,
+                long latestOffset,
+                long stableOffset,
+                long logStartOffset)
+            {
+                progress(partitionId, offset, latestOffset);
+
+                if (boundsRW == null)
+                {
+                    this.boundsRW = new Array32FW.Builder<>(new KafkaOffsetBoundsFW.Builder(), new KafkaOffsetBoundsFW())
+                                               .wrap(boundsBuffer, 0, MAX_ARRAY_LENGTH);
+                }
+                boundsRW.item(b -> b.partitionId(partitionId)
+                                    .stableOffset(stableOffset)
+                                    .logStartOffset(logStartOffset));
+                return this;
+            }
+
             public KafkaMergedFlushExBuilder capabilities(
                 String capabilities)
             {
@@ -1465,7 +2116,7 @@ public final class KafkaFunctions
 
             public KafkaFilterBuilder<KafkaMergedFlushExBuilder> filter()
             {
-                return new KafkaFilterBuilder<>()
+                return new KafkaFilterBuilder<>(filterBuffer, headersBuffer)
                 {
 
                     @Override
@@ -1478,8 +2129,20 @@ public final class KafkaFunctions
                 };
             }
 
+            public KafkaMergedFlushExBuilder snapshot(
+                String snapshot)
+            {
+                mergedFlushExRW.snapshot(s -> s.set(KafkaSnapshot.valueOf(snapshot)));
+                return this;
+            }
+
             public KafkaFlushExBuilder build()
             {
+                if (boundsRW != null)
+                {
+                    mergedFlushExRW.bounds(boundsRW.build());
+                }
+
                 final KafkaMergedFlushExFW mergedFlushEx = mergedFlushExRW.build();
                 flushExRO.wrap(writeBuffer, 0, mergedFlushEx.limit());
                 return KafkaFlushExBuilder.this;
@@ -1492,7 +2155,7 @@ public final class KafkaFunctions
 
             private KafkaFetchFlushExBuilder()
             {
-                fetchFlushExRW.wrap(writeBuffer, KafkaFlushExFW.FIELD_OFFSET_FETCH, writeBuffer.capacity());
+                fetchFlushExRW.wrap(writeBuffer, KafkaFlushExFW.FIELD_OFFSET_FETCH, MAX_ARRAY_LENGTH);
             }
 
             public KafkaFetchFlushExBuilder partition(
@@ -1514,6 +2177,21 @@ public final class KafkaFunctions
                 return this;
             }
 
+            public KafkaFetchFlushExBuilder partition(
+                int partitionId,
+                long offset,
+                long latestOffset,
+                long stableOffset,
+                long logStartOffset)
+            {
+                fetchFlushExRW.partition(p -> p.partitionId(partitionId)
+                                               .partitionOffset(offset)
+                                               .latestOffset(latestOffset))
+                              .stableOffset(stableOffset)
+                              .logStartOffset(logStartOffset);
+                return this;
+            }
+
             public KafkaFlushExBuilder build()
             {
                 final KafkaFetchFlushExFW fetchFlushEx = fetchFlushExRW.build();
@@ -1521,10 +2199,48 @@ public final class KafkaFunctions
                 return KafkaFlushExBuilder.this;
             }
         }
+
+        public final class KafkaProduceFlushExBuilder
+        {
+            private final KafkaProduceFlushExFW.Builder produceFlushExRW = new KafkaProduceFlushExFW.Builder();
+
+            private KafkaProduceFlushExBuilder()
+            {
+                produceFlushExRW.wrap(writeBuffer, KafkaFlushExFW.FIELD_OFFSET_PRODUCE, MAX_ARRAY_LENGTH);
+            }
+
+            public KafkaProduceFlushExBuilder partition(
+                int partitionId,
+                long offset)
+            {
+                produceFlushExRW.partition(p -> p.partitionId(partitionId).partitionOffset(offset));
+                return this;
+            }
+
+            public KafkaProduceFlushExBuilder partition(
+                int partitionId,
+                long offset,
+                long latestOffset)
+            {
+                produceFlushExRW.partition(p -> p.partitionId(partitionId)
+                                                 .partitionOffset(offset)
+                                                 .latestOffset(latestOffset));
+                return this;
+            }
+
+            public KafkaFlushExBuilder build()
+            {
+                final KafkaProduceFlushExFW produceFlushEx = produceFlushExRW.build();
+                flushExRO.wrap(writeBuffer, 0, produceFlushEx.limit());
+                return KafkaFlushExBuilder.this;
+            }
+        }
     }
 
     public static final class KafkaDataExMatcherBuilder
     {
+        private final MutableDirectBuffer recordBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer headersBuffer = new ExpandableArrayBuffer();
         private final DirectBuffer bufferRO = new UnsafeBuffer();
 
         private final DirectBuffer keyRO = new UnsafeBuffer(0, 0);
@@ -1536,6 +2252,7 @@ public final class KafkaFunctions
         private Integer typeId;
         private Integer kind;
         private Predicate<KafkaDataExFW> caseMatcher;
+        private Runnable caseCompiler;
 
         public KafkaMergedDataExMatcherBuilder merged()
         {
@@ -1543,6 +2260,7 @@ public final class KafkaFunctions
 
             this.kind = KafkaApi.MERGED.value();
             this.caseMatcher = matcherBuilder::match;
+            this.caseCompiler = matcherBuilder::compile;
             return matcherBuilder;
         }
 
@@ -1552,6 +2270,7 @@ public final class KafkaFunctions
 
             this.kind = KafkaApi.FETCH.value();
             this.caseMatcher = matcherBuilder::match;
+            this.caseCompiler = matcherBuilder::compile;
             return matcherBuilder;
         }
 
@@ -1561,6 +2280,7 @@ public final class KafkaFunctions
 
             this.kind = KafkaApi.PRODUCE.value();
             this.caseMatcher = matcherBuilder::match;
+            this.caseCompiler = matcherBuilder::compile;
             return matcherBuilder;
         }
 
@@ -1573,6 +2293,11 @@ public final class KafkaFunctions
 
         public BytesMatcher build()
         {
+            if (caseCompiler != null)
+            {
+                caseCompiler.run();
+            }
+
             return typeId != null || kind != null ? this::match : buf -> null;
         }
 
@@ -1625,6 +2350,15 @@ public final class KafkaFunctions
             private KafkaKeyFW.Builder keyRW;
             private KafkaDeltaFW.Builder deltaRW;
             private Array32FW.Builder<KafkaHeaderFW.Builder, KafkaHeaderFW> headersRW;
+            private Array32FW.Builder<KafkaRecordFW.Builder, KafkaRecordFW> recordsRW;
+            private int recordsValueLimit;
+            private KafkaCompression compression;
+
+            private KafkaOffsetFW partition;
+            private KafkaKeyFW key;
+            private KafkaDeltaFW delta;
+            private Array32FW<KafkaHeaderFW> headers;
+            private Array32FW<KafkaRecordFW> records;
 
             private KafkaFetchDataExMatcherBuilder()
             {
@@ -1658,7 +2392,7 @@ public final class KafkaFunctions
                 long latestOffset)
             {
                 assert partitionRW == null;
-                partitionRW = new KafkaOffsetFW.Builder().wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                partitionRW = new KafkaOffsetFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
 
                 partitionRW.partitionId(partitionId).partitionOffset(partitionOffset).latestOffset(latestOffset);
 
@@ -1669,7 +2403,7 @@ public final class KafkaFunctions
                 String key)
             {
                 assert keyRW == null;
-                keyRW = new KafkaKeyFW.Builder().wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                keyRW = new KafkaKeyFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
 
                 if (key == null)
                 {
@@ -1691,7 +2425,7 @@ public final class KafkaFunctions
                 long ancestorOffset)
             {
                 assert deltaRW == null;
-                deltaRW = new KafkaDeltaFW.Builder().wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                deltaRW = new KafkaDeltaFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
 
                 deltaRW.type(t -> t.set(KafkaDeltaType.valueOf(delta))).ancestorOffset(ancestorOffset);
 
@@ -1705,7 +2439,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
 
                 if (value == null)
@@ -1729,11 +2463,48 @@ public final class KafkaFunctions
                 return this;
             }
 
-            public KafkaDataExMatcherBuilder build()
+            public KafkaRecordBuilder<KafkaFetchDataExMatcherBuilder> record()
+            {
+                if (recordsRW == null)
+                {
+                    this.recordsRW = new Array32FW.Builder<>(new KafkaRecordFW.Builder(), new KafkaRecordFW())
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
+                }
+
+                return new KafkaRecordBuilder<>(recordBuffer, headersBuffer, recordsValueLimit)
+                {
+                    @Override
+                    protected KafkaFetchDataExMatcherBuilder build(
+                        KafkaRecordFW record)
+                    {
+                        recordsRW.item(rb -> set(rb, record));
+                        recordsValueLimit = record.valueOffset() + Math.max(record.valueLength(), 0);
+                        return KafkaFetchDataExMatcherBuilder.this;
+                    }
+                };
+            }
+
+            public KafkaFetchDataExMatcherBuilder compression(
+                String compression)
+            {
+                this.compression = KafkaCompression.valueOf(compression);
+                return this;
+            }
+
+            public KafkaDataExMatcherBuilder build()
             {
                 return KafkaDataExMatcherBuilder.this;
             }
 
+            private void compile()
+            {
+                partition = partitionRW != null ? copyOf(partitionRW, new KafkaOffsetFW()) : null;
+                key = keyRW != null ? copyOf(keyRW, new KafkaKeyFW()) : null;
+                delta = deltaRW != null ? copyOf(deltaRW, new KafkaDeltaFW()) : null;
+                headers = headersRW != null ? copyOf(headersRW, new Array32FW<>(new KafkaHeaderFW())) : null;
+                records = recordsRW != null ? copyOf(recordsRW, new Array32FW<>(new KafkaRecordFW())) : null;
+            }
+
             private boolean match(
                 KafkaDataExFW dataEx)
             {
@@ -1743,7 +2514,9 @@ public final class KafkaFunctions
                     matchPartition(fetchDataEx) &&
                     matchKey(fetchDataEx) &&
                     matchDelta(fetchDataEx) &&
-                    matchHeaders(fetchDataEx);
+                    matchHeaders(fetchDataEx) &&
+                    matchRecords(fetchDataEx) &&
+                    matchCompression(fetchDataEx);
             }
 
             private boolean matchDeferred(
@@ -1761,25 +2534,37 @@ public final class KafkaFunctions
             private boolean matchPartition(
                 final KafkaFetchDataExFW fetchDataEx)
             {
-                return partitionRW == null || partitionRW.build().equals(fetchDataEx.partition());
+                return partition == null || equalTo(partition, fetchDataEx.partition());
             }
 
             private boolean matchKey(
                     final KafkaFetchDataExFW fetchDataEx)
             {
-                return keyRW == null || keyRW.build().equals(fetchDataEx.key());
+                return key == null || equalTo(key, fetchDataEx.key());
             }
 
             private boolean matchDelta(
                 final KafkaFetchDataExFW fetchDataEx)
             {
-                return deltaRW == null || deltaRW.build().equals(fetchDataEx.delta());
+                return delta == null || equalTo(delta, fetchDataEx.delta());
             }
 
             private boolean matchHeaders(
                 final KafkaFetchDataExFW fetchDataEx)
             {
-                return headersRW == null || headersRW.build().equals(fetchDataEx.headers());
+                return headers == null || equalTo(headers, fetchDataEx.headers());
+            }
+
+            private boolean matchRecords(
+                final KafkaFetchDataExFW fetchDataEx)
+            {
+                return records == null || equalTo(records, fetchDataEx.records());
+            }
+
+            private boolean matchCompression(
+                final KafkaFetchDataExFW fetchDataEx)
+            {
+                return compression == null || compression == fetchDataEx.compression().get();
             }
         }
 
@@ -1791,6 +2576,9 @@ public final class KafkaFunctions
             private KafkaKeyFW.Builder keyRW;
             private Array32FW.Builder<KafkaHeaderFW.Builder, KafkaHeaderFW> headersRW;
 
+            private KafkaKeyFW key;
+            private Array32FW<KafkaHeaderFW> headers;
+
             private KafkaProduceDataExMatcherBuilder()
             {
             }
@@ -1820,7 +2608,7 @@ public final class KafkaFunctions
                 String key)
             {
                 assert keyRW == null;
-                keyRW = new KafkaKeyFW.Builder().wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                keyRW = new KafkaKeyFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
 
                 if (key == null)
                 {
@@ -1844,7 +2632,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                  .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                  .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
 
                 if (value == null)
@@ -1873,6 +2661,12 @@ public final class KafkaFunctions
                 return KafkaDataExMatcherBuilder.this;
             }
 
+            private void compile()
+            {
+                key = keyRW != null ? copyOf(keyRW, new KafkaKeyFW()) : null;
+                headers = headersRW != null ? copyOf(headersRW, new Array32FW<>(new KafkaHeaderFW())) : null;
+            }
+
             private boolean match(
                 KafkaDataExFW dataEx)
             {
@@ -1905,13 +2699,13 @@ public final class KafkaFunctions
             private boolean matchKey(
                 final KafkaProduceDataExFW produceDataEx)
             {
-                return keyRW == null || keyRW.build().equals(produceDataEx.key());
+                return key == null || equalTo(key, produceDataEx.key());
             }
 
             private boolean matchHeaders(
                 final KafkaProduceDataExFW produceDataEx)
             {
-                return headersRW == null || headersRW.build().equals(produceDataEx.headers());
+                return headers == null || equalTo(headers, produceDataEx.headers());
             }
         }
 
@@ -1925,6 +2719,12 @@ public final class KafkaFunctions
             private KafkaKeyFW.Builder keyRW;
             private Array32FW.Builder<KafkaHeaderFW.Builder, KafkaHeaderFW> headersRW;
 
+            private KafkaOffsetFW partition;
+            private Array32FW<KafkaOffsetFW> progress;
+            private KafkaKeyFW key;
+            private KafkaDeltaFW delta;
+            private Array32FW<KafkaHeaderFW> headers;
+
             private KafkaMergedDataExMatcherBuilder()
             {
             }
@@ -1957,7 +2757,7 @@ public final class KafkaFunctions
                 long latestOffset)
             {
                 assert partitionRW == null;
-                partitionRW = new KafkaOffsetFW.Builder().wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                partitionRW = new KafkaOffsetFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
 
                 partitionRW.partitionId(partitionId).partitionOffset(offset).latestOffset(latestOffset);
 
@@ -1980,7 +2780,7 @@ public final class KafkaFunctions
                 if (progressRW == null)
                 {
                     this.progressRW = new Array32FW.Builder<>(new KafkaOffsetFW.Builder(), new KafkaOffsetFW())
-                                                 .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                 .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
                 progressRW.item(i -> i.partitionId(partitionId).partitionOffset(offset).latestOffset(latestOffset));
                 return this;
@@ -1990,7 +2790,7 @@ public final class KafkaFunctions
                 String key)
             {
                 assert keyRW == null;
-                keyRW = new KafkaKeyFW.Builder().wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                keyRW = new KafkaKeyFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
 
                 if (key == null)
                 {
@@ -2012,7 +2812,7 @@ public final class KafkaFunctions
                 long ancestorOffset)
             {
                 assert deltaRW == null;
-                deltaRW = new KafkaDeltaFW.Builder().wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                deltaRW = new KafkaDeltaFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
 
                 deltaRW.type(t -> t.set(KafkaDeltaType.valueOf(delta))).ancestorOffset(ancestorOffset);
 
@@ -2026,7 +2826,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
 
                 if (value == null)
@@ -2056,7 +2856,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
                 nameRO.wrap(name.getBytes(UTF_8));
                 headersRW.item(i -> i.nameLen(nameRO.capacity())
@@ -2073,7 +2873,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
                 nameRO.wrap(name.getBytes(UTF_8));
                 valueRO.wrap(ByteBuffer.allocate(Byte.BYTES).put(value));
@@ -2091,7 +2891,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
                 nameRO.wrap(name.getBytes(UTF_8));
                 valueRO.wrap(ByteBuffer.allocate(Short.BYTES).putShort(value));
@@ -2109,7 +2909,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
                 nameRO.wrap(name.getBytes(UTF_8));
                 valueRO.wrap(ByteBuffer.allocate(Integer.BYTES).putInt(value));
@@ -2127,7 +2927,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
                 nameRO.wrap(name.getBytes(UTF_8));
                 valueRO.wrap(ByteBuffer.allocate(Long.BYTES).putLong(value));
@@ -2145,7 +2945,7 @@ public final class KafkaFunctions
                 if (headersRW == null)
                 {
                     this.headersRW = new Array32FW.Builder<>(new KafkaHeaderFW.Builder(), new KafkaHeaderFW())
-                                                .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+                                                .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
                 }
 
                 if (value == null)
@@ -2174,6 +2974,15 @@ public final class KafkaFunctions
                 return KafkaDataExMatcherBuilder.this;
             }
 
+            private void compile()
+            {
+                partition = partitionRW != null ? copyOf(partitionRW, new KafkaOffsetFW()) : null;
+                progress = progressRW != null ? copyOf(progressRW, new Array32FW<>(new KafkaOffsetFW())) : null;
+                key = keyRW != null ? copyOf(keyRW, new KafkaKeyFW()) : null;
+                delta = deltaRW != null ? copyOf(deltaRW, new KafkaDeltaFW()) : null;
+                headers = headersRW != null ? copyOf(headersRW, new Array32FW<>(new KafkaHeaderFW())) : null;
+            }
+
             private boolean match(
                 KafkaDataExFW dataEx)
             {
@@ -2190,13 +2999,13 @@ public final class KafkaFunctions
             private boolean matchPartition(
                 final KafkaMergedDataExFW mergedDataEx)
             {
-                return partitionRW == null || partitionRW.build().equals(mergedDataEx.partition());
+                return partition == null || equalTo(partition, mergedDataEx.partition());
             }
 
             private boolean matchProgress(
                 final KafkaMergedDataExFW mergedDataEx)
             {
-                return progressRW == null || progressRW.build().equals(mergedDataEx.progress());
+                return progress == null || equalTo(progress, mergedDataEx.progress());
             }
 
             private boolean matchDeferred(
@@ -2214,28 +3023,1146 @@ public final class KafkaFunctions
             private boolean matchKey(
                 final KafkaMergedDataExFW mergedDataEx)
             {
-                return keyRW == null || keyRW.build().equals(mergedDataEx.key());
+                return key == null || equalTo(key, mergedDataEx.key());
             }
 
             private boolean matchDelta(
                 final KafkaMergedDataExFW mergedDataEx)
             {
-                return deltaRW == null || deltaRW.build().equals(mergedDataEx.delta());
+                return delta == null || equalTo(delta, mergedDataEx.delta());
             }
 
             private boolean matchHeaders(
                 final KafkaMergedDataExFW mergedDataEx)
             {
-                return headersRW == null || headersRW.build().equals(mergedDataEx.headers());
+                return headers == null || equalTo(headers, mergedDataEx.headers());
             }
         }
     }
 
-    @Function
-    public static long offset(
-        String type)
+    public static final class KafkaFlushExMatcherBuilder
     {
-        return KafkaOffsetType.valueOf(type).value();
+        private final DirectBuffer bufferRO = new UnsafeBuffer();
+
+        private final KafkaFlushExFW flushExRO = new KafkaFlushExFW();
+
+        private Integer typeId;
+        private Integer kind;
+        private Predicate<KafkaFlushExFW> caseMatcher;
+        private Runnable caseCompiler;
+
+        public KafkaMergedFlushExMatcherBuilder merged()
+        {
+            final KafkaMergedFlushExMatcherBuilder matcherBuilder = new KafkaMergedFlushExMatcherBuilder();
+
+            this.kind = KafkaApi.MERGED.value();
+            this.caseMatcher = matcherBuilder::match;
+            this.caseCompiler = matcherBuilder::compile;
+            return matcherBuilder;
+        }
+
+        public KafkaFetchFlushExMatcherBuilder fetch()
+        {
+            final KafkaFetchFlushExMatcherBuilder matcherBuilder = new KafkaFetchFlushExMatcherBuilder();
+
+            this.kind = KafkaApi.FETCH.value();
+            this.caseMatcher = matcherBuilder::match;
+            this.caseCompiler = matcherBuilder::compile;
+            return matcherBuilder;
+        }
+
+        public KafkaProduceFlushExMatcherBuilder produce()
+        {
+            final KafkaProduceFlushExMatcherBuilder matcherBuilder = new KafkaProduceFlushExMatcherBuilder();
+
+            this.kind = KafkaApi.PRODUCE.value();
+            this.caseMatcher = matcherBuilder::match;
+            this.caseCompiler = matcherBuilder::compile;
+            return matcherBuilder;
+        }
+
+        public KafkaFlushExMatcherBuilder typeId(
+            int typeId)
+        {
+            this.typeId = typeId;
+            return this;
+        }
+
+        public BytesMatcher build()
+        {
+            if (caseCompiler != null)
+            {
+                caseCompiler.run();
+            }
+
+            return typeId != null || kind != null ? this::match : buf -> null;
+        }
+
+        private KafkaFlushExFW match(
+            ByteBuffer byteBuf) throws Exception
+        {
+            if (!byteBuf.hasRemaining())
+            {
+                return null;
+            }
+
+            bufferRO.wrap(byteBuf);
+            final KafkaFlushExFW flushEx = flushExRO.tryWrap(bufferRO, byteBuf.position(), byteBuf.capacity());
+
+            if (flushEx != null &&
+                matchTypeId(flushEx) &&
+                matchKind(flushEx) &&
+                matchCase(flushEx))
+            {
+                byteBuf.position(byteBuf.position() + flushEx.sizeof());
+                return flushEx;
+            }
+
+            throw new Exception(flushEx.toString());
+        }
+
+        private boolean matchTypeId(
+            final KafkaFlushExFW flushEx)
+        {
+            return typeId == null || typeId == flushEx.typeId();
+        }
+
+        private boolean matchKind(
+            final KafkaFlushExFW flushEx)
+        {
+            return kind == null || kind == flushEx.kind();
+        }
+
+        private boolean matchCase(
+            final KafkaFlushExFW flushEx)
+        {
+            return caseMatcher == null || caseMatcher.test(flushEx);
+        }
+
+        public final class KafkaMergedFlushExMatcherBuilder
+        {
+            private Array32FW.Builder<KafkaOffsetFW.Builder, KafkaOffsetFW> progressRW;
+            private Array32FW.Builder<KafkaOffsetBoundsFW.Builder, KafkaOffsetBoundsFW> boundsRW;
+
+            private Array32FW<KafkaOffsetFW> progress;
+            private Array32FW<KafkaOffsetBoundsFW> bounds;
+            private KafkaSnapshot snapshot;
+
+            private KafkaMergedFlushExMatcherBuilder()
+            {
+            }
+
+            public KafkaMergedFlushExMatcherBuilder progress(
+                int partitionId,
+                long offset)
+            {
+                progress(partitionId, offset, DEFAULT_LATEST_OFFSET);
+                return this;
+            }
+
+            public KafkaMergedFlushExMatcherBuilder progress(
+                int partitionId,
+                long offset,
+                long latestOffset)
+            {
+                if (progressRW == null)
+                {
+                    this.progressRW = new Array32FW.Builder<>(new KafkaOffsetFW.Builder(), new KafkaOffsetFW())
+                                                 .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
+                }
+                progressRW.item(i -> i.partitionId(partitionId)
+                                      .partitionOffset(offset)
+                                      .latestOffset(latestOffset));
+                return this;
+            }
+
+            public KafkaMergedFlushExMatcherBuilder progress(
+                int partitionId,
+                long offset,
+                long latestOffset,
+                long stableOffset,
+                long logStartOffset)
+            {
+                progress(partitionId, offset, latestOffset);
+
+                if (boundsRW == null)
+                {
+                    this.boundsRW = new Array32FW.Builder<>(new KafkaOffsetBoundsFW.Builder(), new KafkaOffsetBoundsFW())
+                                               .wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
+                }
+                boundsRW.item(b -> b.partitionId(partitionId)
+                                    .stableOffset(stableOffset)
+                                    .logStartOffset(logStartOffset));
+                return this;
+            }
+
+            public KafkaMergedFlushExMatcherBuilder snapshot(
+                String snapshot)
+            {
+                this.snapshot = KafkaSnapshot.valueOf(snapshot);
+                return this;
+            }
+
+            public KafkaFlushExMatcherBuilder build()
+            {
+                return KafkaFlushExMatcherBuilder.this;
+            }
+
+            private void compile()
+            {
+                progress = progressRW != null ? copyOf(progressRW, new Array32FW<>(new KafkaOffsetFW())) : null;
+                bounds = boundsRW != null ? copyOf(boundsRW, new Array32FW<>(new KafkaOffsetBoundsFW())) : null;
+            }
+
+            private boolean match(
+                KafkaFlushExFW flushEx)
+            {
+                final KafkaMergedFlushExFW mergedFlushEx = flushEx.merged();
+                return matchProgress(mergedFlushEx) &&
+                    matchSnapshot(mergedFlushEx) &&
+                    matchBounds(mergedFlushEx);
+            }
+
+            private boolean matchProgress(
+                final KafkaMergedFlushExFW mergedFlushEx)
+            {
+                return progress == null || equalTo(progress, mergedFlushEx.progress());
+            }
+
+            private boolean matchSnapshot(
+                final KafkaMergedFlushExFW mergedFlushEx)
+            {
+                return snapshot == null || snapshot == mergedFlushEx.snapshot().get();
+            }
+
+            private boolean matchBounds(
+                final KafkaMergedFlushExFW mergedFlushEx)
+            {
+                return bounds == null || equalTo(bounds, mergedFlushEx.bounds());
+            }
+        }
+
+        public final class KafkaFetchFlushExMatcherBuilder
+        {
+            private KafkaOffsetFW.Builder partitionRW;
+
+            private KafkaOffsetFW partition;
+            private Long stableOffset;
+            private Long logStartOffset;
+
+            private KafkaFetchFlushExMatcherBuilder()
+            {
+            }
+
+            public KafkaFetchFlushExMatcherBuilder partition(
+                int partitionId,
+                long offset)
+            {
+                partition(partitionId, offset, DEFAULT_LATEST_OFFSET);
+                return this;
+            }
+
+            public KafkaFetchFlushExMatcherBuilder partition(
+                int partitionId,
+                long offset,
+                long latestOffset)
+            {
+                assert partitionRW == null;
+                partitionRW = new KafkaOffsetFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
+
+                partitionRW.partitionId(partitionId)
+                           .partitionOffset(offset)
+                           .latestOffset(latestOffset);
+
+                return this;
+            }
+
+            public KafkaFetchFlushExMatcherBuilder partition(
+                int partitionId,
+                long offset,
+                long latestOffset,
+                long stableOffset,
+                long logStartOffset)
+            {
+                partition(partitionId, offset, latestOffset);
+                this.stableOffset = stableOffset;
+                this.logStartOffset = logStartOffset;
+                return this;
+            }
+
+            public KafkaFlushExMatcherBuilder build()
+            {
+                return KafkaFlushExMatcherBuilder.this;
+            }
+
+            private void compile()
+            {
+                partition = partitionRW != null ? copyOf(partitionRW, new KafkaOffsetFW()) : null;
+            }
+
+            private boolean match(
+                KafkaFlushExFW flushEx)
+            {
+                final KafkaFetchFlushExFW fetchFlushEx = flushEx.fetch();
+                return matchPartition(fetchFlushEx) &&
+                    matchStableOffset(fetchFlushEx) &&
+                    matchLogStartOffset(fetchFlushEx);
+            }
+
+            private boolean matchPartition(
+                final KafkaFetchFlushExFW fetchFlushEx)
+            {
+                return partition == null || equalTo(partition, fetchFlushEx.partition());
+            }
+
+            private boolean matchStableOffset(
+                final KafkaFetchFlushExFW fetchFlushEx)
+            {
+                return stableOffset == null || stableOffset == fetchFlushEx.stableOffset();
+            }
+
+            private boolean matchLogStartOffset(
+                final KafkaFetchFlushExFW fetchFlushEx)
+            {
+                return logStartOffset == null || logStartOffset == fetchFlushEx.logStartOffset();
+            }
+        }
+
+        public final class KafkaProduceFlushExMatcherBuilder
+        {
+            private KafkaOffsetFW.Builder partitionRW;
+
+            private KafkaOffsetFW partition;
+
+            private KafkaProduceFlushExMatcherBuilder()
+            {
+            }
+
+            public KafkaProduceFlushExMatcherBuilder partition(
+                int partitionId,
+                long offset)
+            {
+                partition(partitionId, offset, DEFAULT_LATEST_OFFSET);
+                return this;
+            }
+
+            public KafkaProduceFlushExMatcherBuilder partition(
+                int partitionId,
+                long offset,
+                long latestOffset)
+            {
+                assert partitionRW == null;
+                partitionRW = new KafkaOffsetFW.Builder().wrap(new ExpandableArrayBuffer(), 0, MAX_ARRAY_LENGTH);
+
+                partitionRW.partitionId(partitionId)
+                           .partitionOffset(offset)
+                           .latestOffset(latestOffset);
+
+                return this;
+            }
+
+            public KafkaFlushExMatcherBuilder build()
+            {
+                return KafkaFlushExMatcherBuilder.this;
+            }
+
+            private void compile()
+            {
+                partition = partitionRW != null ? copyOf(partitionRW, new KafkaOffsetFW()) : null;
+            }
+
+            private boolean match(
+                KafkaFlushExFW flushEx)
+            {
+                final KafkaProduceFlushExFW produceFlushEx = flushEx.produce();
+                return matchPartition(produceFlushEx);
+            }
+
+            private boolean matchPartition(
+                final KafkaProduceFlushExFW produceFlushEx)
+            {
+                return partition == null || equalTo(partition, produceFlushEx.partition());
+            }
+        }
+    }
+
+    public static final class KafkaRecordBatchBuilder
+    {
+        private final MutableDirectBuffer batchBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer recordsBuffer = new ExpandableArrayBuffer();
+        private final MutableDirectBuffer recordBuffer = new ExpandableArrayBuffer();
+
+        private long baseOffset;
+        private int partitionLeaderEpoch = -1;
+        private int attributes;
+        private long firstTimestamp = -1L;
+        private Long maxTimestamp;
+        private long producerId = -1L;
+        private short producerEpoch = -1;
+        private int baseSequence = -1;
+
+        private int recordCount;
+        private int recordsLimit;
+        private int lastOffsetDelta;
+        private long maxTimestampDelta;
+
+        private KafkaRecordBatchBuilder()
+        {
+        }
+
+        public KafkaRecordBatchBuilder baseOffset(
+            long baseOffset)
+        {
+            this.baseOffset = baseOffset;
+            return this;
+        }
+
+        public KafkaRecordBatchBuilder partitionLeaderEpoch(
+            int partitionLeaderEpoch)
+        {
+            this.partitionLeaderEpoch = partitionLeaderEpoch;
+            return this;
+        }
+
+        public KafkaRecordBatchBuilder attributes(
+            int attributes)
+        {
+            this.attributes = attributes;
+            return this;
+        }
+
+        public KafkaRecordBatchBuilder firstTimestamp(
+            long firstTimestamp)
+        {
+            this.firstTimestamp = firstTimestamp;
+            return this;
+        }
+
+        public KafkaRecordBatchBuilder maxTimestamp(
+            long maxTimestamp)
+        {
+            this.maxTimestamp = maxTimestamp;
+            return this;
+        }
+
+        public KafkaRecordBatchBuilder producerId(
+            long producerId)
+        {
+            this.producerId = producerId;
+            return this;
+        }
+
+        public KafkaRecordBatchBuilder producerEpoch(
+            short producerEpoch)
+        {
+            this.producerEpoch = producerEpoch;
+            return this;
+        }
+
+        public KafkaRecordBatchBuilder baseSequence(
+            int baseSequence)
+        {
+            this.baseSequence = baseSequence;
+            return this;
+        }
+
+        public KafkaBatchRecordBuilder<KafkaRecordBatchBuilder> record()
+        {
+            return new KafkaBatchRecordBuilder<>(recordCount)
+            {
+                @Override
+                protected KafkaRecordBatchBuilder build(
+                    KafkaBatchRecord record)
+                {
+                    final int recordLength = record.encode(recordBuffer, 0);
+                    int progress = putVarint(recordsBuffer, recordsLimit, recordLength);
+                    recordsBuffer.putBytes(progress, recordBuffer, 0, recordLength);
+                    recordsLimit = progress + recordLength;
+                    recordCount++;
+                    lastOffsetDelta = Math.max(lastOffsetDelta, record.offsetDelta);
+                    maxTimestampDelta = Math.max(maxTimestampDelta, record.timestampDelta);
+                    return KafkaRecordBatchBuilder.this;
+                }
+            };
+        }
+
+        public byte[] build()
+        {
+            final long maxTimestamp = this.maxTimestamp != null ? this.maxTimestamp : firstTimestamp + maxTimestampDelta;
+
+            batchBuffer.putLong(RECORD_BATCH_BASE_OFFSET, baseOffset, BIG_ENDIAN);
+            batchBuffer.putInt(RECORD_BATCH_LENGTH, RECORD_BATCH_HEADER_SIZE - RECORD_BATCH_LEADER_EPOCH + recordsLimit,
+                BIG_ENDIAN);
+            batchBuffer.putInt(RECORD_BATCH_LEADER_EPOCH, partitionLeaderEpoch, BIG_ENDIAN);
+            batchBuffer.putByte(RECORD_BATCH_MAGIC, RECORD_BATCH_MAGIC_V2);
+            batchBuffer.putShort(RECORD_BATCH_ATTRIBUTES, (short) attributes, BIG_ENDIAN);
+            batchBuffer.putInt(RECORD_BATCH_LAST_OFFSET_DELTA, lastOffsetDelta, BIG_ENDIAN);
+            batchBuffer.putLong(RECORD_BATCH_FIRST_TIMESTAMP, firstTimestamp, BIG_ENDIAN);
+            batchBuffer.putLong(RECORD_BATCH_MAX_TIMESTAMP, maxTimestamp, BIG_ENDIAN);
+            batchBuffer.putLong(RECORD_BATCH_PRODUCER_ID, producerId, BIG_ENDIAN);
+            batchBuffer.putShort(RECORD_BATCH_PRODUCER_EPOCH, producerEpoch, BIG_ENDIAN);
+            batchBuffer.putInt(RECORD_BATCH_BASE_SEQUENCE, baseSequence, BIG_ENDIAN);
+            batchBuffer.putInt(RECORD_BATCH_RECORD_COUNT, recordCount, BIG_ENDIAN);
+            batchBuffer.putBytes(RECORD_BATCH_HEADER_SIZE, recordsBuffer, 0, recordsLimit);
+
+            final int batchSize = RECORD_BATCH_HEADER_SIZE + recordsLimit;
+            final CRC32C crc = new CRC32C();
+            crc.update(batchBuffer.byteArray(), RECORD_BATCH_ATTRIBUTES, batchSize - RECORD_BATCH_ATTRIBUTES);
+            batchBuffer.putInt(RECORD_BATCH_CRC, (int) crc.getValue(), BIG_ENDIAN);
+
+            final byte[] array = new byte[batchSize];
+            batchBuffer.getBytes(0, array);
+            return array;
+        }
+    }
+
+    public static final class KafkaRecordBatchMatcherBuilder
+    {
+        private final DirectBuffer bufferRO = new UnsafeBuffer();
+        private final CRC32C crc = new CRC32C();
+        private final List<KafkaBatchRecord> records = new ArrayList<>();
+
+        private Long baseOffset;
+        private Integer attributes;
+        private Long producerId;
+        private Short producerEpoch;
+        private Integer baseSequence;
+        private Integer recordCount;
+
+        private int progress;
+        private long varint;
+
+        private KafkaRecordBatchMatcherBuilder()
+        {
+        }
+
+        public KafkaRecordBatchMatcherBuilder baseOffset(
+            long baseOffset)
+        {
+            this.baseOffset = baseOffset;
+            return this;
+        }
+
+        public KafkaRecordBatchMatcherBuilder attributes(
+            int attributes)
+        {
+            this.attributes = attributes;
+            return this;
+        }
+
+        public KafkaRecordBatchMatcherBuilder producerId(
+            long producerId)
+        {
+            this.producerId = producerId;
+            return this;
+        }
+
+        public KafkaRecordBatchMatcherBuilder producerEpoch(
+            short producerEpoch)
+        {
+            this.producerEpoch = producerEpoch;
+            return this;
+        }
+
+        public KafkaRecordBatchMatcherBuilder baseSequence(
+            int baseSequence)
+        {
+            this.baseSequence = baseSequence;
+            return this;
+        }
+
+        public KafkaRecordBatchMatcherBuilder recordCount(
+            int recordCount)
+        {
+            this.recordCount = recordCount;
+            return this;
+        }
+
+        public KafkaBatchRecordBuilder<KafkaRecordBatchMatcherBuilder> record()
+        {
+            return new KafkaBatchRecordBuilder<>(records.size())
+            {
+                @Override
+                protected KafkaRecordBatchMatcherBuilder build(
+                    KafkaBatchRecord record)
+                {
+                    records.add(record);
+                    return KafkaRecordBatchMatcherBuilder.this;
+                }
+            };
+        }
+
+        public BytesMatcher build()
+        {
+            if (recordCount == null && !records.isEmpty())
+            {
+                recordCount = records.size();
+            }
+
+            return this::match;
+        }
+
+        private Integer match(
+            ByteBuffer byteBuf) throws Exception
+        {
+            final int position = byteBuf.position();
+            final int remaining = byteBuf.remaining();
+            if (remaining < RECORD_BATCH_HEADER_SIZE)
+            {
+                return null;
+            }
+
+            bufferRO.wrap(byteBuf);
+            final int batchSize = RECORD_BATCH_LEADER_EPOCH + bufferRO.getInt(position + RECORD_BATCH_LENGTH, BIG_ENDIAN);
+            if (batchSize < RECORD_BATCH_HEADER_SIZE)
+            {
+                throw new Exception("Unexpected record batch length");
+            }
+
+            if (remaining < batchSize)
+            {
+                return null;
+            }
+
+            if (bufferRO.getByte(position + RECORD_BATCH_MAGIC) != RECORD_BATCH_MAGIC_V2)
+            {
+                throw new Exception("Unexpected record batch magic");
+            }
+
+            crc.reset();
+            final ByteBuffer crcBuf = byteBuf.duplicate();
+            crcBuf.position(position + RECORD_BATCH_ATTRIBUTES).limit(position + batchSize);
+            crc.update(crcBuf);
+            if ((int) crc.getValue() != bufferRO.getInt(position + RECORD_BATCH_CRC, BIG_ENDIAN))
+            {
+                throw new Exception("Unexpected record batch crc32c");
+            }
+
+            if (!matchBaseOffset(position) ||
+                !matchAttributes(position) ||
+                !matchProducerId(position) ||
+                !matchProducerEpoch(position) ||
+                !matchBaseSequence(position) ||
+                !matchRecordCount(position) ||
+                !matchRecords(position, batchSize))
+            {
+                throw new Exception("Unexpected record batch");
+            }
+
+            byteBuf.position(position + batchSize);
+            return bufferRO.getInt(position + RECORD_BATCH_RECORD_COUNT, BIG_ENDIAN);
+        }
+
+        private boolean matchBaseOffset(
+            int position)
+        {
+            return baseOffset == null || baseOffset == bufferRO.getLong(position + RECORD_BATCH_BASE_OFFSET, BIG_ENDIAN);
+        }
+
+        private boolean matchAttributes(
+            int position)
+        {
+            return attributes == null || attributes == bufferRO.getShort(position + RECORD_BATCH_ATTRIBUTES, BIG_ENDIAN);
+        }
+
+        private boolean matchProducerId(
+            int position)
+        {
+            return producerId == null || producerId == bufferRO.getLong(position + RECORD_BATCH_PRODUCER_ID, BIG_ENDIAN);
+        }
+
+        private boolean matchProducerEpoch(
+            int position)
+        {
+            return producerEpoch == null ||
+                producerEpoch == bufferRO.getShort(position + RECORD_BATCH_PRODUCER_EPOCH, BIG_ENDIAN);
+        }
+
+        private boolean matchBaseSequence(
+            int position)
+        {
+            return baseSequence == null ||
+                baseSequence == bufferRO.getInt(position + RECORD_BATCH_BASE_SEQUENCE, BIG_ENDIAN);
+        }
+
+        private boolean matchRecordCount(
+            int position)
+        {
+            return recordCount == null || recordCount == bufferRO.getInt(position + RECORD_BATCH_RECORD_COUNT, BIG_ENDIAN);
+        }
+
+        private boolean matchRecords(
+            int position,
+            int batchSize)
+        {
+            final int batchLimit = position + batchSize;
+            progress = position + RECORD_BATCH_HEADER_SIZE;
+            for (int i = 0; i < records.size(); i++)
+            {
+                final KafkaBatchRecord record = records.get(i);
+                if (!nextVarint(batchLimit) || varint < 0 || varint > batchLimit - progress)
+                {
+                    return false;
+                }
+
+                final int recordLimit = progress + (int) varint;
+
+                if (progress == recordLimit ||
+                    bufferRO.getByte(progress++) != 0x00 ||
+                    !matchVarint(record.timestampDelta, recordLimit) ||
+                    !matchVarint(record.offsetDelta, recordLimit) ||
+                    !matchBytes(record.key, recordLimit) ||
+                    !matchBytes(record.value, recordLimit) ||
+                    !matchVarint(record.headerNames.size(), recordLimit))
+                {
+                    return false;
+                }
+
+                for (int h = 0; h < record.headerNames.size(); h++)
+                {
+                    if (!matchBytes(record.headerNames.get(h), recordLimit) ||
+                        !matchBytes(record.headerValues.get(h), recordLimit))
+                    {
+                        return false;
+                    }
+                }
+
+                if (progress != recordLimit)
+                {
+                    return false;
+                }
+            }
+
+            return records.isEmpty() || progress == batchLimit;
+        }
+
+        private boolean matchVarint(
+            long expected,
+            int limit)
+        {
+            return nextVarint(limit) && varint == expected;
+        }
+
+        private boolean matchBytes(
+            byte[] expected,
+            int limit)
+        {
+            if (!nextVarint(limit))
+            {
+                return false;
+            }
+
+            if (expected == null)
+            {
+                return varint == -1;
+            }
+
+            if (varint != expected.length || expected.length > limit - progress)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < expected.length; i++)
+            {
+                if (bufferRO.getByte(progress + i) != expected[i])
+                {
+                    return false;
+                }
+            }
+
+            progress += expected.length;
+            return true;
+        }
+
+        private boolean nextVarint(
+            int limit)
+        {
+            long bits = 0L;
+            for (int shift = 0; shift < Long.SIZE && progress < limit; shift += 7)
+            {
+                final byte value = bufferRO.getByte(progress++);
+                bits |= (value & 0x7fL) << shift;
+                if (value >= 0)
+                {
+                    varint = (bits >>> 1) ^ -(bits & 1L);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static final class KafkaBinaryDeltaBuilder
+    {
+        private final KafkaDeltaOpFW.Builder opRW = new KafkaDeltaOpFW.Builder();
+        private final MutableDirectBuffer deltaBuffer = new ExpandableArrayBuffer();
+        private final DirectBuffer valueRO = new UnsafeBuffer(0, 0);
+
+        private int limit;
+
+        private KafkaBinaryDeltaBuilder()
+        {
+        }
+
+        public KafkaBinaryDeltaBuilder copy(
+            int position,
+            int length)
+        {
+            limit = opRW.wrap(deltaBuffer, limit, MAX_ARRAY_LENGTH)
+                        .copy(c -> c.position(position)
+                                    .length(length))
+                        .build()
+                        .limit();
+            return this;
+        }
+
+        public KafkaBinaryDeltaBuilder insert(
+            String value)
+        {
+            return insertBytes(value.getBytes(UTF_8));
+        }
+
+        public KafkaBinaryDeltaBuilder insertBytes(
+            byte[] value)
+        {
+            valueRO.wrap(value);
+            limit = opRW.wrap(deltaBuffer, limit, MAX_ARRAY_LENGTH)
+                        .insert(i -> i.length(valueRO.capacity())
+                                      .value(valueRO, 0, valueRO.capacity()))
+                        .build()
+                        .limit();
+            return this;
+        }
+
+        public byte[] build()
+        {
+            final byte[] delta = new byte[limit];
+            deltaBuffer.getBytes(0, delta);
+            return delta;
+        }
+    }
+
+    public static final class KafkaStickyPartitioner
+    {
+        private final SplittableRandom random;
+        private final int partitionCount;
+
+        private int partitionId;
+
+        private KafkaStickyPartitioner(
+            int partitionCount,
+            long seed)
+        {
+            this.random = new SplittableRandom(seed);
+            this.partitionCount = partitionCount;
+            this.partitionId = random.nextInt(partitionCount);
+        }
+
+        public int partition()
+        {
+            return partitionId;
+        }
+
+        public KafkaStickyPartitioner nextBatch()
+        {
+            if (partitionCount > 1)
+            {
+                final int nextPartitionId = random.nextInt(partitionCount - 1);
+                partitionId = nextPartitionId < partitionId ? nextPartitionId : nextPartitionId + 1;
+            }
+            return this;
+        }
+    }
+
+    private static final class KafkaPayloadMatcher implements BytesMatcher
+    {
+        private final DirectBuffer bufferRO = new UnsafeBuffer(0, 0);
+        private final SplittableRandom random;
+        private final int length;
+
+        private int progress;
+        private long bits;
+
+        private KafkaPayloadMatcher(
+            long seed,
+            int length)
+        {
+            this.random = new SplittableRandom(seed);
+            this.length = length;
+        }
+
+        @Override
+        public Object match(
+            ByteBuffer byteBuf) throws Exception
+        {
+            final int position = byteBuf.position();
+            final int available = Math.min(byteBuf.remaining(), length - progress);
+            bufferRO.wrap(byteBuf, position, available);
+
+            int index = 0;
+            while (index < available)
+            {
+                if ((progress & 7) == 0 && available - index >= Long.BYTES)
+                {
+                    if (bufferRO.getLong(index, LITTLE_ENDIAN) != random.nextLong())
+                    {
+                        throw new Exception("Unexpected payload");
+                    }
+                    index += Long.BYTES;
+                    progress += Long.BYTES;
+                }
+                else
+                {
+                    if ((progress & 7) == 0)
+                    {
+                        bits = random.nextLong();
+                    }
+                    if (bufferRO.getByte(index) != (byte) bits)
+                    {
+                        throw new Exception("Unexpected payload");
+                    }
+                    bits >>>= 8;
+                    index++;
+                    progress++;
+                }
+            }
+
+            byteBuf.position(position + available);
+
+            return progress == length ? length : null;
+        }
+    }
+
+    private static Integer matchCrc32c(
+        ByteBuffer byteBuf,
+        int length,
+        CRC32C crc) throws Exception
+    {
+        Integer match = null;
+
+        if (byteBuf.remaining() >= Integer.BYTES + length)
+        {
+            final int position = byteBuf.position();
+            final int expected = byteBuf.duplicate().order(BIG_ENDIAN).getInt(position);
+
+            crc.reset();
+            final ByteBuffer crcBuf = byteBuf.duplicate();
+            crcBuf.position(position + Integer.BYTES).limit(position + Integer.BYTES + length);
+            crc.update(crcBuf);
+
+            if ((int) crc.getValue() != expected)
+            {
+                throw new Exception("Unexpected crc32c");
+            }
+
+            byteBuf.position(position + Integer.BYTES);
+            match = expected;
+        }
+
+        return match;
+    }
+
+    private static int murmur2(
+        byte[] bytes)
+    {
+        final int m = 0x5bd1_e995;
+        final int r = 24;
+        final int length = bytes.length;
+        final int limit = length & ~3;
+
+        int h = 0x9747_b28c ^ length;
+
+        for (int i = 0; i < limit; i += 4)
+        {
+            int k = (bytes[i] & 0xff) |
+                    (bytes[i + 1] & 0xff) << 8 |
+                    (bytes[i + 2] & 0xff) << 16 |
+                    (bytes[i + 3] & 0xff) << 24;
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h *= m;
+            h ^= k;
+        }
+
+        switch (length & 3)
+        {
+        case 3:
+            h ^= (bytes[limit + 2] & 0xff) << 16;
+            // fall through
+        case 2:
+            h ^= (bytes[limit + 1] & 0xff) << 8;
+            // fall through
+        case 1:
+            h ^= bytes[limit] & 0xff;
+            h *= m;
+            break;
+        default:
+            break;
+        }
+
+        h ^= h >>> 13;
+        h *= m;
+        h ^= h >>> 15;
+
+        return h;
+    }
+
+    private static int varintBitsSize(
+        long bits)
+    {
+        return (70 - Long.numberOfLeadingZeros(bits | 1L)) / 7;
+    }
+
+    private static int putVarint(
+        MutableDirectBuffer buffer,
+        int index,
+        long value)
+    {
+        long bits = (value << 1) ^ (value >> 63);
+        int progress = index;
+        while ((bits & ~0x7fL) != 0L)
+        {
+            buffer.putByte(progress++, (byte) (bits & 0x7f | 0x80));
+            bits >>>= 7;
+        }
+        buffer.putByte(progress++, (byte) bits);
+        return progress;
+    }
+
+    private static int putVarintBytes(
+        MutableDirectBuffer buffer,
+        int index,
+        byte[] bytes)
+    {
+        int progress = putVarint(buffer, index, bytes != null ? bytes.length : -1);
+        if (bytes != null)
+        {
+            buffer.putBytes(progress, bytes);
+            progress += bytes.length;
+        }
+        return progress;
+    }
+
+    private static void encodeVarintBits(
+        long bits,
+        byte[] bytes)
+    {
+        final int last = bytes.length - 1;
+        for (int index = 0; index < last; index++)
+        {
+            bytes[index] = (byte) ((bits >>> (7 * index)) & 0x7f | 0x80);
+        }
+        bytes[last] = (byte) (bits >>> (7 * last));
+    }
+
+    private static long decodeVarintBits(
+        byte[] bytes,
+        int offset,
+        int limit,
+        int maxBits)
+    {
+        long bits = 0L;
+        for (int index = offset, shift = 0; index < limit && shift < maxBits; index++, shift += 7)
+        {
+            final byte value = bytes[index];
+            bits |= (value & 0x7fL) << shift;
+            if (value >= 0)
+            {
+                return bits;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static Long matchVarint(
+        ByteBuffer byteBuf) throws Exception
+    {
+        final int position = byteBuf.position();
+        final long bits = matchVarintBits(byteBuf, Long.SIZE);
+        return byteBuf.position() != position ? (bits >>> 1) ^ -(bits & 1L) : null;
+    }
+
+    private static Integer matchUvarint(
+        ByteBuffer byteBuf) throws Exception
+    {
+        final int position = byteBuf.position();
+        final long bits = matchVarintBits(byteBuf, Integer.SIZE);
+        return byteBuf.position() != position ? (int) bits : null;
+    }
+
+    private static long matchVarintBits(
+        ByteBuffer byteBuf,
+        int maxBits) throws Exception
+    {
+        final int position = byteBuf.position();
+        final int limit = byteBuf.limit();
+
+        long bits = 0L;
+        for (int index = position, shift = 0; index < limit; index++, shift += 7)
+        {
+            if (shift >= maxBits)
+            {
+                throw new Exception("Malformed varint");
+            }
+
+            final byte value = byteBuf.get(index);
+            bits |= (value & 0x7fL) << shift;
+            if (value >= 0)
+            {
+                byteBuf.position(index + 1);
+                return bits;
+            }
+        }
+
+        return 0L;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Flyweight> T copyOf(
+        Flyweight.Builder<T> builder,
+        T flyweight)
+    {
+        final T built = builder.build();
+        final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[built.sizeof()]);
+        buffer.putBytes(0, built.buffer(), built.offset(), built.sizeof());
+        return (T) flyweight.wrap(buffer, 0, buffer.capacity());
+    }
+
+    private static boolean equalTo(
+        Flyweight expected,
+        Flyweight actual)
+    {
+        final int length = expected.sizeof();
+        if (length != actual.sizeof())
+        {
+            return false;
+        }
+
+        final DirectBuffer expectedBuffer = expected.buffer();
+        final DirectBuffer actualBuffer = actual.buffer();
+        final int expectedOffset = expected.offset();
+        final int actualOffset = actual.offset();
+
+        int index = 0;
+        for (; index + Long.BYTES <= length; index += Long.BYTES)
+        {
+            if (expectedBuffer.getLong(expectedOffset + index) != actualBuffer.getLong(actualOffset + index))
+            {
+                return false;
+            }
+        }
+
+        for (; index < length; index++)
+        {
+            if (expectedBuffer.getByte(expectedOffset + index) != actualBuffer.getByte(actualOffset + index))
+            {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     private KafkaFunctions()
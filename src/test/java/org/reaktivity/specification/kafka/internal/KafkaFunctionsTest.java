@@ -15,36 +15,64 @@
  */
 package org.reaktivity.specification.kafka.internal;
 
+import static java.nio.ByteOrder.BIG_ENDIAN;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 import static org.kaazing.k3po.lang.internal.el.ExpressionFactoryUtils.newExpressionFactory;
+import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.AGE;
 import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.HEADER;
 import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.HEADERS;
+import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.HEADER_PREFIX;
 import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.KEY;
+import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.KEY_PREFIX;
 import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.NOT;
+import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.TIMESTAMP;
+import static org.reaktivity.specification.kafka.internal.types.KafkaConditionType.VALUE;
 
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.zip.CRC32C;
 
 import javax.el.ELContext;
 import javax.el.ExpressionFactory;
 import javax.el.ValueExpression;
 
 import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.MutableInteger;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Before;
 import org.junit.Test;
 import org.kaazing.k3po.lang.el.BytesMatcher;
 import org.kaazing.k3po.lang.internal.el.ExpressionContext;
+import org.reaktivity.specification.kafka.internal.KafkaFunctions.KafkaStickyPartitioner;
 import org.reaktivity.specification.kafka.internal.types.Array32FW;
+import org.reaktivity.specification.kafka.internal.types.KafkaAckMode;
+import org.reaktivity.specification.kafka.internal.types.KafkaAge;
+import org.reaktivity.specification.kafka.internal.types.KafkaCompression;
+import org.reaktivity.specification.kafka.internal.types.KafkaDeltaOpFW;
+import org.reaktivity.specification.kafka.internal.types.KafkaDeltaOpType;
 import org.reaktivity.specification.kafka.internal.types.KafkaDeltaType;
+import org.reaktivity.specification.kafka.internal.types.KafkaFetchFormat;
+import org.reaktivity.specification.kafka.internal.types.KafkaIsolation;
+import org.reaktivity.specification.kafka.internal.types.KafkaMergeOrder;
 import org.reaktivity.specification.kafka.internal.types.KafkaOffsetFW;
 import org.reaktivity.specification.kafka.internal.types.KafkaSkip;
+import org.reaktivity.specification.kafka.internal.types.KafkaSnapshot;
+import org.reaktivity.specification.kafka.internal.types.KafkaValueConditionType;
 import org.reaktivity.specification.kafka.internal.types.KafkaValueMatchFW;
 import org.reaktivity.specification.kafka.internal.types.OctetsFW;
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaApi;
@@ -64,6 +92,9 @@ import org.reaktivity.specification.kafka.internal.types.stream.KafkaMetaBeginEx
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaMetaDataExFW;
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaProduceBeginExFW;
 import org.reaktivity.specification.kafka.internal.types.stream.KafkaProduceDataExFW;
+import org.reaktivity.specification.kafka.internal.types.stream.KafkaProduceFlushExFW;
+
+import com.sun.management.ThreadMXBean;
 
 public class KafkaFunctionsTest
 {
@@ -238,6 +269,132 @@ public class KafkaFunctionsTest
 
     }
 
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithFormat()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .deltaType("NONE")
+                                         .format("RECORD_BATCH")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+        assertEquals(KafkaDeltaType.NONE, mergedBeginEx.deltaType().get());
+        assertEquals(KafkaFetchFormat.RECORD_BATCH, mergedBeginEx.format().get());
+    }
+
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithTimestamp()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(-1, -2L)
+                                         .timestamp(1577836800000L)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+        assertEquals(KafkaIsolation.READ_UNCOMMITTED, mergedBeginEx.isolation().get());
+        assertEquals(1577836800000L, mergedBeginEx.timestamp());
+    }
+
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithTimestampOrder()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .partition(1, 1L)
+                                         .order("TIMESTAMP")
+                                         .watermarkDelay(1000)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+        assertEquals(-1L, mergedBeginEx.timestamp());
+        assertEquals(KafkaMergeOrder.TIMESTAMP, mergedBeginEx.order().get());
+        assertEquals(1000, mergedBeginEx.watermarkDelay());
+    }
+
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithIsolation()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .isolation("READ_COMMITTED")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+        assertEquals(-1, mergedBeginEx.maxWait());
+        assertEquals(KafkaIsolation.READ_COMMITTED, mergedBeginEx.isolation().get());
+    }
+
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithFetchTuning()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .maxWait(0)
+                                         .minBytes(1)
+                                         .maxBytes(65535)
+                                         .partitionMaxBytes(8192)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+        assertEquals(KafkaFetchFormat.DECODED, mergedBeginEx.format().get());
+        assertEquals(KafkaIsolation.READ_UNCOMMITTED, mergedBeginEx.isolation().get());
+        assertEquals(0, mergedBeginEx.maxWait());
+        assertEquals(1, mergedBeginEx.minBytes());
+        assertEquals(65535, mergedBeginEx.maxBytes());
+        assertEquals(8192, mergedBeginEx.partitionMaxBytes());
+    }
+
     @Test
     public void shouldGenerateMergedBeginExtensionWithHeaderNotEqualsFilter()
     {
@@ -284,6 +441,204 @@ public class KafkaFunctionsTest
                                     .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
     }
 
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithAgeFilter()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .filter()
+                                             .age("LIVE")
+                                             .build()
+                                         .filter()
+                                             .key("match")
+                                             .age("HISTORICAL")
+                                             .build()
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+
+        final MutableInteger filterCount = new MutableInteger();
+        mergedBeginEx.filters().forEach(f -> filterCount.value++);
+        assertEquals(2, filterCount.value);
+        assertNotNull(mergedBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == AGE.value() &&
+                    c.age().get() == KafkaAge.LIVE) != null));
+        assertNotNull(mergedBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == KEY.value()) != null &&
+                    f.conditions()
+                .matchFirst(c -> c.kind() == AGE.value() &&
+                    c.age().get() == KafkaAge.HISTORICAL) != null));
+    }
+
+    @Test
+    public void shouldGenerateFetchBeginExtensionWithTimestampFilter()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .filter()
+                                             .timestamp(1000L, 2000L)
+                                             .build()
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), beginEx.kind());
+
+        final KafkaFetchBeginExFW fetchBeginEx = beginEx.fetch();
+        assertEquals("topic", fetchBeginEx.topic().asString());
+
+        final MutableInteger filterCount = new MutableInteger();
+        fetchBeginEx.filters().forEach(f -> filterCount.value++);
+        assertEquals(1, filterCount.value);
+        assertNotNull(fetchBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == TIMESTAMP.value() &&
+                    c.timestamp().from() == 1000L &&
+                    c.timestamp().to() == 2000L) != null));
+    }
+
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithPrefixFilters()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .filter()
+                                             .keyPrefix("tenant42/")
+                                             .build()
+                                         .filter()
+                                             .headerPrefix("content-type", "application/")
+                                             .build()
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+
+        final MutableInteger filterCount = new MutableInteger();
+        mergedBeginEx.filters().forEach(f -> filterCount.value++);
+        assertEquals(2, filterCount.value);
+        assertNotNull(mergedBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == KEY_PREFIX.value() &&
+                    "tenant42/".equals(c.keyPrefix()
+                                        .value()
+                                        .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
+        assertNotNull(mergedBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == HEADER_PREFIX.value() &&
+                    "content-type".equals(c.headerPrefix().name()
+                                           .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o))) &&
+                    "application/".equals(c.headerPrefix().value()
+                                           .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
+    }
+
+    @Test
+    public void shouldGenerateFetchBeginExtensionWithKeyPrefixFilter()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .filter()
+                                             .keyPrefix("tenant42/")
+                                             .headerPrefix("content-type", "text/")
+                                             .build()
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), beginEx.kind());
+
+        final KafkaFetchBeginExFW fetchBeginEx = beginEx.fetch();
+        assertEquals("topic", fetchBeginEx.topic().asString());
+
+        final MutableInteger conditionCount = new MutableInteger();
+        fetchBeginEx.filters().forEach(f -> f.conditions().forEach(c -> conditionCount.value++));
+        assertEquals(2, conditionCount.value);
+        assertNotNull(fetchBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == KEY_PREFIX.value() &&
+                    "tenant42/".equals(c.keyPrefix()
+                                        .value()
+                                        .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null &&
+                    f.conditions()
+                .matchFirst(c -> c.kind() == HEADER_PREFIX.value() &&
+                    "text/".equals(c.headerPrefix().value()
+                                    .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
+    }
+
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithValueFilters()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .topic("topic")
+                                         .partition(0, 1L)
+                                         .filter()
+                                             .value("/status", "\"open\"")
+                                             .build()
+                                         .filter()
+                                             .valueAt(5, "OPEN")
+                                             .build()
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.MERGED.value(), beginEx.kind());
+
+        final KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals("topic", mergedBeginEx.topic().asString());
+
+        final MutableInteger filterCount = new MutableInteger();
+        mergedBeginEx.filters().forEach(f -> filterCount.value++);
+        assertEquals(2, filterCount.value);
+        assertNotNull(mergedBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == VALUE.value() &&
+                    c.value().kind() == KafkaValueConditionType.POINTER.value() &&
+                    "/status".equals(c.value().pointer().path().asString()) &&
+                    "\"open\"".equals(c.value().pointer().value()
+                                       .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
+        assertNotNull(mergedBeginEx.filters()
+                .matchFirst(f -> f.conditions()
+                .matchFirst(c -> c.kind() == VALUE.value() &&
+                    c.value().kind() == KafkaValueConditionType.SLICE.value() &&
+                    c.value().slice().position() == 5 &&
+                    "OPEN".equals(c.value().slice().value()
+                                   .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
+    }
+
     @Test
     public void shouldGenerateMergedBeginExtensionWithKeyNotEqualsFilter()
     {
@@ -889,6 +1244,55 @@ public class KafkaFunctionsTest
                                     .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
     }
 
+    @Test
+    public void shouldGenerateMergedBeginExtensionWithManyPartitionsAndFilters()
+    {
+        KafkaFunctions.KafkaBeginExBuilder.KafkaMergedBeginExBuilder merged = KafkaFunctions.beginEx()
+                                                                                     .typeId(0x01)
+                                                                                     .merged()
+                                                                                         .topic("topic");
+        for (int partitionId = 0; partitionId < 1024; partitionId++)
+        {
+            merged.partition(partitionId, 1L);
+        }
+        for (int filter = 0; filter < 256; filter++)
+        {
+            merged.filter()
+                      .header("tenant", String.format("tenant-%d", filter))
+                      .build();
+        }
+        byte[] build = merged.build().build();
+
+        assertTrue(build.length > 1024 * 8);
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        KafkaMergedBeginExFW mergedBeginEx = beginEx.merged();
+        assertEquals(1024, mergedBeginEx.partitions().fieldCount());
+        assertEquals(256, mergedBeginEx.filters().fieldCount());
+        assertEquals(build.length, beginEx.sizeof());
+    }
+
+    @Test
+    public void shouldGenerateMergedDataExtensionWithManyHeaders()
+    {
+        KafkaFunctions.KafkaDataExBuilder.KafkaMergedDataExBuilder merged = KafkaFunctions.dataEx()
+                                                                                   .typeId(0x01)
+                                                                                   .merged()
+                                                                                       .partition(0, 1L);
+        for (int header = 0; header < 1024; header++)
+        {
+            merged.header(String.format("name-%d", header), String.format("value-%d", header));
+        }
+        byte[] build = merged.build().build();
+
+        assertTrue(build.length > 1024 * 8);
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaDataExFW dataEx = new KafkaDataExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(1024, dataEx.merged().headers().fieldCount());
+    }
+
     @Test
     public void shouldMatchMergedDataExtension() throws Exception
     {
@@ -926,7 +1330,46 @@ public class KafkaFunctionsTest
     }
 
     @Test
-    public void shouldMatchMergedDataExtensionWithLatestOffset() throws Exception
+    public void shouldMatchMergedDataExtensionWithoutAllocation() throws Exception
+    {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .merged()
+                                                 .deferred(100)
+                                                 .partition(0, 0L)
+                                                 .progress(0, 1L)
+                                                 .timestamp(12345678L)
+                                                 .key("match")
+                                                 .delta("NONE", -1L)
+                                                 .header("name", "value")
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .merged(f -> f.deferred(100)
+                             .timestamp(12345678L)
+                             .partition(p -> p.partitionId(0).partitionOffset(0L))
+                             .progressItem(p -> p.partitionId(0).partitionOffset(1L))
+                             .key(k -> k.length(5)
+                                        .value(v -> v.set("match".getBytes(UTF_8))))
+                             .delta(d -> d.type(t -> t.set(KafkaDeltaType.NONE)))
+                             .headersItem(h -> h.nameLen(4)
+                                                .name(n -> n.set("name".getBytes(UTF_8)))
+                                                .valueLen(5)
+                                                .value(v -> v.set("value".getBytes(UTF_8)))))
+                .build();
+
+        assertMatchWithoutAllocation(threads, matcher, byteBuf);
+    }
+
+    @Test
+    public void shouldMatchMergedDataExtensionWithLatestOffset() throws Exception
     {
         BytesMatcher matcher = KafkaFunctions.matchDataEx()
                                              .typeId(0x01)
@@ -1282,6 +1725,172 @@ public class KafkaFunctionsTest
         assertNotNull(matcher.match(byteBuf));
     }
 
+    @Test
+    public void shouldGenerateMergedFlushExtensionWithLogBounds()
+    {
+        byte[] build = KafkaFunctions.flushEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .progress(0, 5L, 10L, 8L, 5L)
+                                         .progress(1, 2L, 2L)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaFlushExFW flushEx = new KafkaFlushExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, flushEx.typeId());
+
+        final KafkaMergedFlushExFW mergedFlushEx = flushEx.merged();
+        assertNotNull(mergedFlushEx.progress()
+                .matchFirst(p -> p.partitionId() == 0 &&
+                                 p.partitionOffset() == 5L &&
+                                 p.latestOffset() == 10L));
+        assertNotNull(mergedFlushEx.progress()
+                .matchFirst(p -> p.partitionId() == 1 &&
+                                 p.partitionOffset() == 2L &&
+                                 p.latestOffset() == 2L));
+        assertEquals(1, mergedFlushEx.bounds().fieldCount());
+        assertNotNull(mergedFlushEx.bounds()
+                .matchFirst(b -> b.partitionId() == 0 &&
+                                 b.stableOffset() == 8L &&
+                                 b.logStartOffset() == 5L));
+    }
+
+    @Test
+    public void shouldMatchMergedFlushExtensionProgress() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .merged()
+                                                 .progress(0, 5L, 10L, 8L, 5L)
+                                                 .progress(1, 2L)
+                                                 .progress(2, 3L, 4L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .merged(f -> f.progressItem(p -> p.partitionId(0)
+                                                  .partitionOffset(5L)
+                                                  .latestOffset(10L))
+                              .progressItem(p -> p.partitionId(1).partitionOffset(2L))
+                              .progressItem(p -> p.partitionId(2).partitionOffset(3L).latestOffset(4L))
+                              .boundsItem(b -> b.partitionId(0)
+                                                .stableOffset(8L)
+                                                .logStartOffset(5L)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchMergedFlushExtensionLogStartOffset() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .merged()
+                                                 .progress(0, 5L, 10L, 8L, 5L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .merged(f -> f.progressItem(p -> p.partitionId(0)
+                                                  .partitionOffset(5L)
+                                                  .latestOffset(10L))
+                              .boundsItem(b -> b.partitionId(0)
+                                                .stableOffset(8L)
+                                                .logStartOffset(0L)))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test
+    public void shouldGenerateMergedFlushExtensionWithSnapshotComplete()
+    {
+        byte[] build = KafkaFunctions.flushEx()
+                                     .typeId(0x01)
+                                     .merged()
+                                         .progress(0, 5L, 5L)
+                                         .snapshot("COMPLETE")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaFlushExFW flushEx = new KafkaFlushExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, flushEx.typeId());
+
+        final KafkaMergedFlushExFW mergedFlushEx = flushEx.merged();
+        assertNotNull(mergedFlushEx.progress()
+                .matchFirst(p -> p.partitionId() == 0 && p.partitionOffset() == 5L));
+        assertEquals(KafkaSnapshot.COMPLETE, mergedFlushEx.snapshot().get());
+    }
+
+    @Test
+    public void shouldMatchMergedFlushExtensionSnapshotComplete() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .merged()
+                                                 .progress(0, 5L, 5L)
+                                                 .snapshot("COMPLETE")
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .merged(f -> f.progressItem(p -> p.partitionId(0).partitionOffset(5L).latestOffset(5L))
+                              .snapshot(s -> s.set(KafkaSnapshot.COMPLETE)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchMergedFlushExtensionSnapshot() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .merged()
+                                                 .snapshot("COMPLETE")
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .merged(f -> f.progressItem(p -> p.partitionId(0).partitionOffset(5L).latestOffset(5L)))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test
+    public void shouldMatchMergedFlushExtension() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .merged()
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .merged(f -> f.progressItem(p -> p.partitionId(0).partitionOffset(1L)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
     @Test
     public void shouldMatchMergedDataExtensionKey() throws Exception
     {
@@ -1621,6 +2230,64 @@ public class KafkaFunctionsTest
         matcher.match(byteBuf);
     }
 
+    @Test
+    public void shouldMatchMergedDataExtensionMergePatchDelta() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .merged()
+                                                 .partition(0, 10L)
+                                                 .delta("JSON_MERGE_PATCH", 9L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .merged(f -> f.timestamp(12345678L)
+                        .partition(p -> p.partitionId(0).partitionOffset(10L))
+                        .progressItem(p -> p.partitionId(0).partitionOffset(11L))
+                        .key(k -> k.length(5).value(v -> v.set("match".getBytes(UTF_8))))
+                        .delta(d -> d.type(t -> t.set(KafkaDeltaType.JSON_MERGE_PATCH)).ancestorOffset(9L)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test
+    public void shouldGenerateBinaryDelta()
+    {
+        byte[] delta = KafkaFunctions.binaryDelta()
+                                     .copy(0, 53)
+                                     .insert(",pluto")
+                                     .insertBytes(new byte[] { 0x01, 0x02 })
+                                     .copy(60, 5)
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(delta);
+        KafkaDeltaOpFW op = new KafkaDeltaOpFW();
+
+        op.wrap(buffer, 0, buffer.capacity());
+        assertEquals(KafkaDeltaOpType.COPY.value(), op.kind());
+        assertEquals(0, op.copy().position());
+        assertEquals(53, op.copy().length());
+
+        op.wrap(buffer, op.limit(), buffer.capacity());
+        assertEquals(KafkaDeltaOpType.INSERT.value(), op.kind());
+        assertEquals(",pluto", op.insert().value().get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)));
+
+        op.wrap(buffer, op.limit(), buffer.capacity());
+        assertEquals(KafkaDeltaOpType.INSERT.value(), op.kind());
+        assertEquals(2, op.insert().length());
+
+        op.wrap(buffer, op.limit(), buffer.capacity());
+        assertEquals(KafkaDeltaOpType.COPY.value(), op.kind());
+        assertEquals(60, op.copy().position());
+        assertEquals(5, op.copy().length());
+        assertEquals(buffer.capacity(), op.limit());
+    }
+
     @Test
     public void shouldGenerateFetchBeginExtension()
     {
@@ -1759,6 +2426,106 @@ public class KafkaFunctionsTest
                     Objects.isNull(c.header().value())) != null));
     }
 
+    @Test
+    public void shouldGenerateFetchBeginExtensionWithFormat()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .topic("topic")
+                                         .partition(0, 0L)
+                                         .deltaType("NONE")
+                                         .format("RECORD_BATCH")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), beginEx.kind());
+
+        final KafkaFetchBeginExFW fetchBeginEx = beginEx.fetch();
+        assertEquals("topic", fetchBeginEx.topic().asString());
+        assertEquals(KafkaDeltaType.NONE, fetchBeginEx.deltaType().get());
+        assertEquals(KafkaFetchFormat.RECORD_BATCH, fetchBeginEx.format().get());
+    }
+
+    @Test
+    public void shouldGenerateFetchBeginExtensionWithTimestamp()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .topic("topic")
+                                         .partition(0, -2L)
+                                         .timestamp(1577836800000L)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), beginEx.kind());
+
+        final KafkaFetchBeginExFW fetchBeginEx = beginEx.fetch();
+        assertEquals("topic", fetchBeginEx.topic().asString());
+        assertEquals(KafkaIsolation.READ_UNCOMMITTED, fetchBeginEx.isolation().get());
+        assertEquals(1577836800000L, fetchBeginEx.timestamp());
+    }
+
+    @Test
+    public void shouldGenerateFetchBeginExtensionWithIsolation()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .topic("topic")
+                                         .partition(0, 0L)
+                                         .isolation("READ_COMMITTED")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), beginEx.kind());
+
+        final KafkaFetchBeginExFW fetchBeginEx = beginEx.fetch();
+        assertEquals("topic", fetchBeginEx.topic().asString());
+        assertEquals(-1, fetchBeginEx.maxWait());
+        assertEquals(KafkaIsolation.READ_COMMITTED, fetchBeginEx.isolation().get());
+    }
+
+    @Test
+    public void shouldGenerateFetchBeginExtensionWithFetchTuning()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .topic("topic")
+                                         .partition(0, 0L)
+                                         .maxWait(500)
+                                         .minBytes(1048576)
+                                         .maxBytes(52428800)
+                                         .partitionMaxBytes(1048576)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), beginEx.kind());
+
+        final KafkaFetchBeginExFW fetchBeginEx = beginEx.fetch();
+        assertEquals("topic", fetchBeginEx.topic().asString());
+        assertEquals(KafkaFetchFormat.DECODED, fetchBeginEx.format().get());
+        assertEquals(KafkaIsolation.READ_UNCOMMITTED, fetchBeginEx.isolation().get());
+        assertEquals(500, fetchBeginEx.maxWait());
+        assertEquals(1048576, fetchBeginEx.minBytes());
+        assertEquals(52428800, fetchBeginEx.maxBytes());
+        assertEquals(1048576, fetchBeginEx.partitionMaxBytes());
+    }
+
     @Test
     public void shouldGenerateFetchDataExtension()
     {
@@ -1923,15 +2690,240 @@ public class KafkaFunctionsTest
     }
 
     @Test
-    public void shouldMatchFetchDataExtension() throws Exception
+    public void shouldGenerateFetchFlushExtensionWithLogBounds()
     {
-        BytesMatcher matcher = KafkaFunctions.matchDataEx()
-                                             .typeId(0x01)
-                                             .fetch()
-                                                 .timestamp(12345678L)
-                                                 .partition(0, 0L)
-                                                 .key("match")
-                                                 .header("name", "value")
+        byte[] build = KafkaFunctions.flushEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .partition(0, 5L, 10L, 8L, 5L)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaFlushExFW flushEx = new KafkaFlushExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, flushEx.typeId());
+
+        final KafkaFetchFlushExFW fetchFlushEx = flushEx.fetch();
+        final KafkaOffsetFW partition = fetchFlushEx.partition();
+        assertEquals(0, partition.partitionId());
+        assertEquals(5L, partition.partitionOffset());
+        assertEquals(10L, partition.latestOffset());
+        assertEquals(8L, fetchFlushEx.stableOffset());
+        assertEquals(5L, fetchFlushEx.logStartOffset());
+    }
+
+    @Test
+    public void shouldMatchFetchFlushExtension() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .partition(0, 5L, 10L, 8L, 5L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0)
+                                              .partitionOffset(5L)
+                                              .latestOffset(10L))
+                             .stableOffset(8L)
+                             .logStartOffset(5L))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test
+    public void shouldMatchFetchFlushExtensionPartition() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .fetch()
+                                                 .partition(0, 1L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(1L)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test
+    public void shouldMatchFetchFlushExtensionTypeId() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(1L)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test
+    public void shouldNotBuildFlushExtensionMatcher() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        assertNull(matcher.match(byteBuf));
+    }
+
+    @Test
+    public void shouldNotMatchFlushExtensionWhenEmpty() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .build();
+
+        assertNull(matcher.match(ByteBuffer.allocate(0)));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchFetchFlushExtensionLogStartOffset() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .partition(0, 5L, 10L, 8L, 5L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0)
+                                              .partitionOffset(5L)
+                                              .latestOffset(10L))
+                             .stableOffset(8L)
+                             .logStartOffset(0L))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test
+    public void shouldGenerateProduceFlushExtension()
+    {
+        byte[] build = KafkaFunctions.flushEx()
+                                     .typeId(0x01)
+                                     .produce()
+                                         .partition(0, 20L)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaFlushExFW flushEx = new KafkaFlushExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, flushEx.typeId());
+
+        final KafkaProduceFlushExFW produceFlushEx = flushEx.produce();
+        final KafkaOffsetFW partition = produceFlushEx.partition();
+        assertEquals(0, partition.partitionId());
+        assertEquals(20L, partition.partitionOffset());
+    }
+
+    @Test
+    public void shouldMatchProduceFlushExtension() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .produce()
+                                                 .partition(0, 20L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .produce(f -> f.partition(p -> p.partitionId(0).partitionOffset(20L)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchProduceFlushExtensionPartitionOffset() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x01)
+                                             .produce()
+                                                 .partition(0, 20L)
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .produce(f -> f.partition(p -> p.partitionId(0).partitionOffset(21L)))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchFlushExtensionTypeId() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .typeId(0x02)
+                                             .fetch()
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(1L)))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchFlushExtensionKind() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchFlushEx()
+                                             .merged()
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaFlushExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(1L)))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test
+    public void shouldMatchFetchDataExtension() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .timestamp(12345678L)
+                                                 .partition(0, 0L)
+                                                 .key("match")
+                                                 .header("name", "value")
                                                  .build()
                                              .build();
 
@@ -1954,6 +2946,44 @@ public class KafkaFunctionsTest
         assertNotNull(matcher.match(byteBuf));
     }
 
+    @Test
+    public void shouldMatchFetchDataExtensionWithoutAllocation() throws Exception
+    {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .deferred(100)
+                                                 .timestamp(12345678L)
+                                                 .partition(0, 0L)
+                                                 .key("match")
+                                                 .delta("NONE", -1L)
+                                                 .header("name", "value")
+                                                 .compression("NONE")
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.deferred(100)
+                             .timestamp(12345678L)
+                             .partition(p -> p.partitionId(0).partitionOffset(0L))
+                             .key(k -> k.length(5)
+                                        .value(v -> v.set("match".getBytes(UTF_8))))
+                             .delta(d -> d.type(t -> t.set(KafkaDeltaType.NONE)))
+                             .headersItem(h -> h.nameLen(4)
+                                                .name(n -> n.set("name".getBytes(UTF_8)))
+                                                .valueLen(5)
+                                                .value(v -> v.set("value".getBytes(UTF_8)))))
+                .build();
+
+        assertMatchWithoutAllocation(threads, matcher, byteBuf);
+    }
+
     @Test
     public void shouldMatchFetchDataExtensionWithLatestOffset() throws Exception
     {
@@ -2328,52 +3358,339 @@ public class KafkaFunctionsTest
     }
 
     @Test
-    public void shouldGenerateProduceBeginExtension()
+    public void shouldGenerateFetchDataExtensionWithRecords()
     {
-        byte[] build = KafkaFunctions.beginEx()
+        byte[] build = KafkaFunctions.dataEx()
                                      .typeId(0x01)
-                                     .produce()
-                                         .transaction("transaction")
-                                         .topic("topic")
-                                         .partition(1, 0)
+                                     .fetch()
+                                         .timestamp(12345678L)
+                                         .partition(0, 2L, 3L)
+                                         .record()
+                                             .offset(1L)
+                                             .timestampDelta(-1L)
+                                             .key("key1")
+                                             .valueLength(5)
+                                             .header("name", "value")
+                                             .build()
+                                         .record()
+                                             .offset(2L)
+                                             .timestampDelta(0L)
+                                             .key(null)
+                                             .valueLength(7)
+                                             .header("name", null)
+                                             .build()
                                          .build()
                                      .build();
 
         DirectBuffer buffer = new UnsafeBuffer(build);
-        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
-        assertEquals(0x01, beginEx.typeId());
-        assertEquals(KafkaApi.PRODUCE.value(), beginEx.kind());
+        KafkaDataExFW dataEx = new KafkaDataExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, dataEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), dataEx.kind());
 
-        final KafkaProduceBeginExFW produceBeginEx = beginEx.produce();
-        assertEquals("transaction", produceBeginEx.transaction().asString());
-        assertEquals(1, produceBeginEx.partition().partitionId());
-        assertEquals("topic", produceBeginEx.topic().asString());
-        assertEquals(0, produceBeginEx.partition().partitionOffset());
+        final KafkaFetchDataExFW fetchDataEx = dataEx.fetch();
+        final MutableInteger recordsCount = new MutableInteger();
+        fetchDataEx.records().forEach(r -> recordsCount.value++);
+        assertEquals(2, recordsCount.value);
+
+        assertNotNull(fetchDataEx.records()
+                .matchFirst(r -> r.partitionOffset() == 1L &&
+                    r.timestampDelta() == -1L &&
+                    r.valueOffset() == 0 &&
+                    r.valueLength() == 5 &&
+                    "key1".equals(r.key()
+                                   .value()
+                                   .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o))) &&
+                    r.headers().matchFirst(h ->
+                        "value".equals(h.value()
+                                        .get((b, o, m) -> b.getStringWithoutLengthUtf8(o, m - o)))) != null));
+        assertNotNull(fetchDataEx.records()
+                .matchFirst(r -> r.partitionOffset() == 2L &&
+                    r.timestampDelta() == 0L &&
+                    r.valueOffset() == 5 &&
+                    r.valueLength() == 7 &&
+                    Objects.isNull(r.key().value()) &&
+                    r.headers().matchFirst(h -> Objects.isNull(h.value())) != null));
     }
 
     @Test
-    public void shouldGenerateProduceDataExtension()
+    public void shouldMatchFetchDataExtensionRecords() throws Exception
     {
-        byte[] build = KafkaFunctions.dataEx()
-                                     .typeId(0x01)
-                                     .produce()
-                                         .deferred(10)
-                                         .timestamp(12345678L)
-                                         .sequence(0)
-                                         .key("match")
-                                         .header("name", "value")
-                                         .build()
-                                     .build();
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .partition(0, 2L)
+                                                 .record()
+                                                     .offset(1L)
+                                                     .key("match")
+                                                     .valueLength(5)
+                                                     .build()
+                                                 .record()
+                                                     .offset(2L)
+                                                     .key(null)
+                                                     .valueLength(-1)
+                                                     .build()
+                                                 .build()
+                                             .build();
 
-        DirectBuffer buffer = new UnsafeBuffer(build);
-        KafkaDataExFW dataEx = new KafkaDataExFW().wrap(buffer, 0, buffer.capacity());
-        assertEquals(0x01, dataEx.typeId());
-        assertEquals(KafkaApi.PRODUCE.value(), dataEx.kind());
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
 
-        final KafkaProduceDataExFW produceDataEx = dataEx.produce();
-        assertEquals(10, produceDataEx.deferred());
-        assertEquals(12345678L, produceDataEx.timestamp());
-        assertEquals(0, produceDataEx.sequence());
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(2L))
+                             .key(k -> k.length(-1)
+                                        .value((OctetsFW) null))
+                             .delta(d -> d.type(t -> t.set(KafkaDeltaType.NONE)))
+                             .headers(h -> {})
+                             .recordsItem(r -> r.partitionOffset(1L)
+                                                .valueOffset(0)
+                                                .valueLength(5)
+                                                .key(k -> k.length(5)
+                                                           .value(v -> v.set("match".getBytes(UTF_8))))
+                                                .headers(h -> {}))
+                             .recordsItem(r -> r.partitionOffset(2L)
+                                                .valueOffset(5)
+                                                .valueLength(-1)
+                                                .key(k -> k.length(-1)
+                                                           .value((OctetsFW) null))
+                                                .headers(h -> {})))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchFetchDataExtensionRecords() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .record()
+                                                     .offset(1L)
+                                                     .key("no match")
+                                                     .valueLength(5)
+                                                     .build()
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(1L))
+                             .key(k -> k.length(-1)
+                                        .value((OctetsFW) null))
+                             .delta(d -> d.type(t -> t.set(KafkaDeltaType.NONE)))
+                             .headers(h -> {})
+                             .recordsItem(r -> r.partitionOffset(1L)
+                                                .valueOffset(0)
+                                                .valueLength(5)
+                                                .key(k -> k.length(5)
+                                                           .value(v -> v.set("match".getBytes(UTF_8))))
+                                                .headers(h -> {})))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test
+    public void shouldGenerateFetchDataExtensionWithCompression()
+    {
+        byte[] build = KafkaFunctions.dataEx()
+                                     .typeId(0x01)
+                                     .fetch()
+                                         .timestamp(12345678L)
+                                         .partition(0, 2L, 3L)
+                                         .compression("LZ4")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaDataExFW dataEx = new KafkaDataExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, dataEx.typeId());
+        assertEquals(KafkaApi.FETCH.value(), dataEx.kind());
+
+        final KafkaFetchDataExFW fetchDataEx = dataEx.fetch();
+        assertEquals(12345678L, fetchDataEx.timestamp());
+        assertEquals(KafkaCompression.LZ4, fetchDataEx.compression().get());
+    }
+
+    @Test
+    public void shouldMatchFetchDataExtensionCompression() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .partition(0, 1L)
+                                                 .compression("GZIP")
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(1L))
+                             .key(k -> k.length(-1)
+                                        .value((OctetsFW) null))
+                             .delta(d -> d.type(t -> t.set(KafkaDeltaType.NONE)))
+                             .headers(h -> {})
+                             .records(r -> {})
+                             .compression(c -> c.set(KafkaCompression.GZIP)))
+                .build();
+
+        assertNotNull(matcher.match(byteBuf));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchFetchDataExtensionCompression() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .fetch()
+                                                 .compression("SNAPPY")
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .fetch(f -> f.partition(p -> p.partitionId(0).partitionOffset(1L))
+                             .key(k -> k.length(-1)
+                                        .value((OctetsFW) null))
+                             .delta(d -> d.type(t -> t.set(KafkaDeltaType.NONE)))
+                             .headers(h -> {})
+                             .records(r -> {})
+                             .compression(c -> c.set(KafkaCompression.ZSTD)))
+                .build();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test
+    public void shouldGenerateProduceBeginExtension()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .produce()
+                                         .transaction("transaction")
+                                         .topic("topic")
+                                         .partition(1, 0)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.PRODUCE.value(), beginEx.kind());
+
+        final KafkaProduceBeginExFW produceBeginEx = beginEx.produce();
+        assertEquals("transaction", produceBeginEx.transaction().asString());
+        assertEquals(1, produceBeginEx.partition().partitionId());
+        assertEquals("topic", produceBeginEx.topic().asString());
+        assertEquals(0, produceBeginEx.partition().partitionOffset());
+    }
+
+    @Test
+    public void shouldGenerateProduceBeginExtensionWithCompression()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .produce()
+                                         .topic("topic")
+                                         .partition(1)
+                                         .compression("ZSTD")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.PRODUCE.value(), beginEx.kind());
+
+        final KafkaProduceBeginExFW produceBeginEx = beginEx.produce();
+        assertEquals("topic", produceBeginEx.topic().asString());
+        assertEquals(1, produceBeginEx.partition().partitionId());
+        assertEquals(KafkaCompression.ZSTD, produceBeginEx.compression().get());
+    }
+
+    @Test
+    public void shouldGenerateProduceBeginExtensionWithProducerEpoch()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .produce()
+                                         .producerId(1000L)
+                                         .producerEpoch((short) 2)
+                                         .topic("topic")
+                                         .partition(1)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.PRODUCE.value(), beginEx.kind());
+
+        final KafkaProduceBeginExFW produceBeginEx = beginEx.produce();
+        assertNull(produceBeginEx.transaction().asString());
+        assertEquals(1000L, produceBeginEx.producerId());
+        assertEquals(2, produceBeginEx.producerEpoch());
+        assertEquals("topic", produceBeginEx.topic().asString());
+    }
+
+    @Test
+    public void shouldGenerateProduceBeginExtensionWithHints()
+    {
+        byte[] build = KafkaFunctions.beginEx()
+                                     .typeId(0x01)
+                                     .produce()
+                                         .topic("topic")
+                                         .partition(1)
+                                         .acks("LEADER_ONLY")
+                                         .timeout(30000)
+                                         .linger(5)
+                                         .batchSize(16384)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaBeginExFW beginEx = new KafkaBeginExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, beginEx.typeId());
+        assertEquals(KafkaApi.PRODUCE.value(), beginEx.kind());
+
+        final KafkaProduceBeginExFW produceBeginEx = beginEx.produce();
+        assertEquals("topic", produceBeginEx.topic().asString());
+        assertEquals(KafkaCompression.NONE, produceBeginEx.compression().get());
+        assertEquals(KafkaAckMode.LEADER_ONLY, produceBeginEx.acks().get());
+        assertEquals(30000, produceBeginEx.timeout());
+        assertEquals(5, produceBeginEx.linger());
+        assertEquals(16384, produceBeginEx.batchSize());
+    }
+
+    @Test
+    public void shouldGenerateProduceDataExtension()
+    {
+        byte[] build = KafkaFunctions.dataEx()
+                                     .typeId(0x01)
+                                     .produce()
+                                         .deferred(10)
+                                         .timestamp(12345678L)
+                                         .sequence(0)
+                                         .key("match")
+                                         .header("name", "value")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(build);
+        KafkaDataExFW dataEx = new KafkaDataExFW().wrap(buffer, 0, buffer.capacity());
+        assertEquals(0x01, dataEx.typeId());
+        assertEquals(KafkaApi.PRODUCE.value(), dataEx.kind());
+
+        final KafkaProduceDataExFW produceDataEx = dataEx.produce();
+        assertEquals(10, produceDataEx.deferred());
+        assertEquals(12345678L, produceDataEx.timestamp());
+        assertEquals(0, produceDataEx.sequence());
 
         assertEquals("match", produceDataEx.key()
                                            .value()
@@ -2391,6 +3708,41 @@ public class KafkaFunctionsTest
     }
 
 
+    @Test
+    public void shouldMatchProduceDataExtensionWithoutAllocation() throws Exception
+    {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        BytesMatcher matcher = KafkaFunctions.matchDataEx()
+                                             .typeId(0x01)
+                                             .produce()
+                                                 .deferred(100)
+                                                 .timestamp(12345678L)
+                                                 .sequence(0)
+                                                 .key("match")
+                                                 .header("name", "value")
+                                                 .build()
+                                             .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+
+        new KafkaDataExFW.Builder().wrap(new UnsafeBuffer(byteBuf), 0, byteBuf.capacity())
+                .typeId(0x01)
+                .produce(f -> f.deferred(100)
+                               .timestamp(12345678L)
+                               .sequence(0)
+                               .key(k -> k.length(5)
+                                          .value(v -> v.set("match".getBytes(UTF_8))))
+                               .headersItem(h -> h.nameLen(4)
+                                                  .name(n -> n.set("name".getBytes(UTF_8)))
+                                                  .valueLen(5)
+                                                  .value(v -> v.set("value".getBytes(UTF_8)))))
+                .build();
+
+        assertMatchWithoutAllocation(threads, matcher, byteBuf);
+    }
+
     @Test
     public void shouldMatchProduceDataExtensionTimestamp() throws Exception
     {
@@ -3036,14 +4388,785 @@ public class KafkaFunctionsTest
     }
 
     @Test
-    public void shouldResolveOffsetTypeHistorical()
+    public void shouldComputeVarintSize() throws Exception
     {
-        assertEquals(-2, KafkaFunctions.offset("HISTORICAL"));
+        String expressionText = String.format("${kafka:varintSize(%d)}", -1L << 13);
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, Integer.class);
+        assertEquals(2, expression.getValue(ctx));
     }
 
     @Test
-    public void shouldResolveOffsetTypeLive()
+    public void shouldRoundTripVarintAtEachBitLength()
     {
-        assertEquals(-1, KafkaFunctions.offset("LIVE"));
+        for (int shift = 0; shift < Long.SIZE; shift++)
+        {
+            final long bit = 1L << shift;
+            assertVarintRoundTrip(bit);
+            assertVarintRoundTrip(bit - 1L);
+            assertVarintRoundTrip(-bit);
+            assertVarintRoundTrip(-bit - 1L);
+        }
+        assertVarintRoundTrip(Long.MAX_VALUE);
+        assertVarintRoundTrip(Long.MIN_VALUE);
+    }
+
+    @Test
+    public void shouldRoundTripVarintSmallValues()
+    {
+        for (long value = -0x10000L; value <= 0x10000L; value++)
+        {
+            assertVarintRoundTrip(value);
+        }
+    }
+
+    @Test
+    public void shouldRoundTripVarintRandomValues()
+    {
+        final Random random = new Random(0x5eedL);
+        for (int i = 0; i < 100_000; i++)
+        {
+            assertVarintRoundTrip(random.nextLong() >> random.nextInt(Long.SIZE));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTruncatedVarintValue()
+    {
+        KafkaFunctions.varintValue(new byte[] { (byte) 0x80, (byte) 0x80 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOverlongVarintValue()
+    {
+        byte[] bytes = new byte[11];
+        Arrays.fill(bytes, (byte) 0x80);
+        KafkaFunctions.varintValue(bytes);
+    }
+
+    @Test
+    public void shouldMatchVarint() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchVarint();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(16);
+        byteBuf.put(KafkaFunctions.varint(-300L)).put((byte) 0x7f).flip();
+
+        assertEquals(-300L, matcher.match(byteBuf));
+        assertEquals(2, byteBuf.position());
+    }
+
+    @Test
+    public void shouldNotMatchVarintIncomplete() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchVarint();
+
+        ByteBuffer byteBuf = ByteBuffer.wrap(new byte[] { (byte) 0x80, (byte) 0x80 });
+
+        assertNull(matcher.match(byteBuf));
+        assertEquals(0, byteBuf.position());
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchVarintOverlong() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchVarint();
+
+        byte[] bytes = new byte[11];
+        Arrays.fill(bytes, (byte) 0x80);
+
+        matcher.match(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void shouldComputeUvarint() throws Exception
+    {
+        String expressionText = "${kafka:uvarint(300)}";
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, byte[].class);
+        byte[] actuals = (byte[]) expression.getValue(ctx);
+        assertArrayEquals(new byte[] { (byte) 0xac, 0x02 }, actuals);
+    }
+
+    @Test
+    public void shouldComputeUvarintUnsignedMax() throws Exception
+    {
+        assertArrayEquals(new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f },
+            KafkaFunctions.uvarint(-1));
+        assertEquals(5, KafkaFunctions.uvarintSize(-1));
+    }
+
+    @Test
+    public void shouldRoundTripUvarintAtEachBitLength()
+    {
+        for (int shift = 0; shift < Integer.SIZE; shift++)
+        {
+            final int bit = 1 << shift;
+            assertUvarintRoundTrip(bit);
+            assertUvarintRoundTrip(bit - 1);
+            assertUvarintRoundTrip(-bit);
+        }
+        for (int value = 0; value <= 0x10000; value++)
+        {
+            assertUvarintRoundTrip(value);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOverlongUvarintValue()
+    {
+        KafkaFunctions.uvarintValue(new byte[] { (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01 });
+    }
+
+    @Test
+    public void shouldMatchUvarint() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchUvarint();
+
+        ByteBuffer byteBuf = ByteBuffer.wrap(KafkaFunctions.uvarint(-2));
+
+        assertEquals(-2, matcher.match(byteBuf));
+        assertEquals(5, byteBuf.position());
+    }
+
+    @Test
+    public void shouldNotMatchUvarintEmpty() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchUvarint();
+
+        assertNull(matcher.match(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    public void shouldGeneratePayloadFromSeed()
+    {
+        final SplittableRandom random = new SplittableRandom(42L);
+        final ByteBuffer expected = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        expected.putLong(random.nextLong()).putLong(random.nextLong());
+
+        assertArrayEquals(expected.array(), KafkaFunctions.payload(42L, 16));
+        assertArrayEquals(Arrays.copyOf(expected.array(), 13), KafkaFunctions.payload(42L, 13));
+        assertArrayEquals(KafkaFunctions.payload(7L, 1000), KafkaFunctions.payload(7L, 1000));
+        assertFalse(Arrays.equals(KafkaFunctions.payload(7L, 1000), KafkaFunctions.payload(8L, 1000)));
+        assertEquals(0, KafkaFunctions.payload(7L, 0).length);
+    }
+
+    @Test
+    public void shouldInvokePayload() throws Exception
+    {
+        String expressionText = "${kafka:payload(1, 10240)}";
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, byte[].class);
+
+        assertArrayEquals(KafkaFunctions.payload(1L, 10240), (byte[]) expression.getValue(ctx));
+    }
+
+    @Test
+    public void shouldMatchPayload() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchPayload(1L, 1021);
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+        byteBuf.put(KafkaFunctions.payload(1L, 1021)).put(new byte[3]).flip();
+
+        assertEquals(1021, matcher.match(byteBuf));
+        assertEquals(1021, byteBuf.position());
+    }
+
+    @Test
+    public void shouldMatchPayloadIncrementally() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchPayload(1L, 1021);
+
+        final byte[] payload = KafkaFunctions.payload(1L, 1021);
+        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+        byteBuf.put(payload).put(new byte[3]).flip();
+
+        byteBuf.limit(3);
+        assertNull(matcher.match(byteBuf));
+        assertEquals(3, byteBuf.position());
+
+        byteBuf.limit(500);
+        assertNull(matcher.match(byteBuf));
+        assertEquals(500, byteBuf.position());
+
+        byteBuf.limit(1024);
+        assertEquals(1021, matcher.match(byteBuf));
+        assertEquals(1021, byteBuf.position());
+    }
+
+    @Test
+    public void shouldNotMatchPayloadIncomplete() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchPayload(1L, 1024);
+
+        ByteBuffer byteBuf = ByteBuffer.wrap(KafkaFunctions.payload(1L, 1023));
+
+        assertNull(matcher.match(byteBuf));
+        assertEquals(1023, byteBuf.position());
+        assertNull(matcher.match(ByteBuffer.allocate(0)));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchPayloadIncrementallyWithDifferentByte() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchPayload(1L, 1024);
+
+        final byte[] payload = KafkaFunctions.payload(1L, 1024);
+        payload[513] ^= 1;
+
+        assertNull(matcher.match(ByteBuffer.wrap(payload, 0, 511)));
+        matcher.match(ByteBuffer.wrap(payload, 511, 513));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchPayloadWithDifferentSeed() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchPayload(1L, 1024);
+
+        matcher.match(ByteBuffer.wrap(KafkaFunctions.payload(2L, 1024)));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchPayloadWithDifferentTrailingByte() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchPayload(1L, 1021);
+
+        final byte[] payload = KafkaFunctions.payload(1L, 1021);
+        payload[1020] ^= 1;
+
+        matcher.match(ByteBuffer.wrap(payload));
+    }
+
+    @Test
+    public void shouldComputeCrc32c()
+    {
+        final byte[] bytes = "123456789".getBytes(UTF_8);
+
+        assertEquals(0xe3069283, KafkaFunctions.crc32c(bytes));
+        assertEquals(0xe3069283, KafkaFunctions.crc32c(Arrays.copyOf(bytes, 4), Arrays.copyOfRange(bytes, 4, 9)));
+        assertEquals(0, KafkaFunctions.crc32c());
+    }
+
+    @Test
+    public void shouldInvokeCrc32c() throws Exception
+    {
+        String expressionText = "${kafka:crc32c(kafka:varint(1), kafka:varint(2))}";
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, int.class);
+
+        assertEquals(KafkaFunctions.crc32c(new byte[] { 0x02, 0x04 }), expression.getValue(ctx));
+    }
+
+    @Test
+    public void shouldMatchCrc32c() throws Exception
+    {
+        final byte[] payload = KafkaFunctions.randomBytes(1024);
+        final int crc32c = KafkaFunctions.crc32c(payload);
+        BytesMatcher matcher = KafkaFunctions.matchCrc32c(payload.length);
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(Integer.BYTES + payload.length);
+        byteBuf.putInt(crc32c).put(payload).flip();
+
+        assertEquals(crc32c, matcher.match(byteBuf));
+        assertEquals(Integer.BYTES, byteBuf.position());
+    }
+
+    @Test
+    public void shouldNotMatchCrc32cIncomplete() throws Exception
+    {
+        final byte[] payload = KafkaFunctions.randomBytes(1024);
+        BytesMatcher matcher = KafkaFunctions.matchCrc32c(payload.length);
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(Integer.BYTES + payload.length - 1);
+        byteBuf.putInt(KafkaFunctions.crc32c(payload)).put(payload, 0, payload.length - 1).flip();
+
+        assertNull(matcher.match(byteBuf));
+        assertEquals(0, byteBuf.position());
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchCrc32cMismatch() throws Exception
+    {
+        final byte[] payload = "Hello, world".getBytes(UTF_8);
+        BytesMatcher matcher = KafkaFunctions.matchCrc32c(payload.length);
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(Integer.BYTES + payload.length);
+        byteBuf.putInt(KafkaFunctions.crc32c(payload) ^ 1).put(payload).flip();
+
+        matcher.match(byteBuf);
+    }
+
+    @Test
+    public void shouldComputePartitionCompatibleWithMurmur2()
+    {
+        assertMurmur2Partition(-973932308, "21");
+        assertMurmur2Partition(-790332482, "foobar");
+        assertMurmur2Partition(-985981536, "a-little-bit-long-string");
+        assertMurmur2Partition(-1486304829, "a-little-bit-longer-string");
+        assertMurmur2Partition(-58897971, "lkjh234lh9fiuh90y23oiuhsafujhadof229phr9h19h89h8");
+        assertMurmur2Partition(479470107, "abc");
+    }
+
+    @Test
+    public void shouldComputePartitionAcrossPartitionCount()
+    {
+        final int[] counts = new int[64];
+        for (int i = 0; i < 10000; i++)
+        {
+            final int partitionId = KafkaFunctions.partition(String.format("key-%d", i), counts.length);
+            assertTrue(partitionId >= 0 && partitionId < counts.length);
+            counts[partitionId]++;
+        }
+
+        for (int count : counts)
+        {
+            assertTrue(count > 0);
+        }
+    }
+
+    @Test
+    public void shouldInvokePartition() throws Exception
+    {
+        String expressionText = "${kafka:partition(\"21\", 64)}";
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, int.class);
+
+        assertEquals(44, expression.getValue(ctx));
+    }
+
+    @Test
+    public void shouldStickToPartitionUntilNextBatch()
+    {
+        KafkaStickyPartitioner partitioner = KafkaFunctions.stickyPartitioner(64, 42L);
+
+        final int partitionId = partitioner.partition();
+        assertTrue(partitionId >= 0 && partitionId < 64);
+        assertEquals(partitionId, partitioner.partition());
+
+        final int nextPartitionId = partitioner.nextBatch().partition();
+        assertTrue(nextPartitionId >= 0 && nextPartitionId < 64);
+        assertNotEquals(partitionId, nextPartitionId);
+        assertEquals(nextPartitionId, partitioner.partition());
+    }
+
+    @Test
+    public void shouldRepeatStickyPartitionsForSameSeed()
+    {
+        KafkaStickyPartitioner partitioner = KafkaFunctions.stickyPartitioner(64, 42L);
+
+        assertEquals(14, partitioner.partition());
+        assertEquals(34, partitioner.nextBatch().partition());
+        assertEquals(27, partitioner.nextBatch().partition());
+    }
+
+    @Test
+    public void shouldStickToOnlyPartition()
+    {
+        KafkaStickyPartitioner partitioner = KafkaFunctions.stickyPartitioner(1, 42L);
+
+        assertEquals(0, partitioner.partition());
+        assertEquals(0, partitioner.nextBatch().partition());
+    }
+
+    private static void assertMatchWithoutAllocation(
+        ThreadMXBean threads,
+        BytesMatcher matcher,
+        ByteBuffer byteBuf) throws Exception
+    {
+        for (int i = 0; i < 100_000; i++)
+        {
+            byteBuf.position(0);
+            assertNotNull(matcher.match(byteBuf));
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        byteBuf.position(0);
+
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        final Object match = matcher.match(byteBuf);
+        final long allocatedAfter = threads.getThreadAllocatedBytes(threadId);
+
+        assertNotNull(match);
+        assertEquals(0L, allocatedAfter - allocatedBefore);
+    }
+
+    private static void assertMurmur2Partition(
+        int murmur2,
+        String key)
+    {
+        final int expected = murmur2 & 0x7fffffff;
+        assertEquals(key, expected == Integer.MAX_VALUE ? 0 : expected, KafkaFunctions.partition(key, Integer.MAX_VALUE));
+    }
+
+    private static void assertVarintRoundTrip(
+        long value)
+    {
+        final byte[] bytes = KafkaFunctions.varint(value);
+        assertArrayEquals(Long.toString(value), expectedVarint(value), bytes);
+        assertEquals(bytes.length, KafkaFunctions.varintSize(value));
+        assertEquals(value, KafkaFunctions.varintValue(bytes));
+    }
+
+    private static void assertUvarintRoundTrip(
+        int value)
+    {
+        final byte[] bytes = KafkaFunctions.uvarint(value);
+        assertEquals(bytes.length, KafkaFunctions.uvarintSize(value));
+        assertEquals(value, KafkaFunctions.uvarintValue(bytes));
+    }
+
+    private static byte[] expectedVarint(
+        long value)
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(10);
+        long bits = (value << 1) ^ (value >> 63);
+        while ((bits & ~0x7fL) != 0L)
+        {
+            buffer.put((byte) ((bits & 0x7f) | 0x80));
+            bits >>>= 7;
+        }
+        buffer.put((byte) bits);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @Test
+    public void shouldBuildRecordBatch()
+    {
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .baseOffset(10L)
+                                     .partitionLeaderEpoch(0)
+                                     .firstTimestamp(1000L)
+                                     .record()
+                                         .value("Hello, world")
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(batch);
+        assertEquals(80, batch.length);
+        assertEquals(10L, buffer.getLong(0, BIG_ENDIAN));
+        assertEquals(68, buffer.getInt(8, BIG_ENDIAN));
+        assertEquals(0, buffer.getInt(12, BIG_ENDIAN));
+        assertEquals(2, buffer.getByte(16));
+        assertEquals(crc32c(batch, 21), buffer.getInt(17, BIG_ENDIAN));
+        assertEquals(0, buffer.getShort(21, BIG_ENDIAN));
+        assertEquals(0, buffer.getInt(23, BIG_ENDIAN));
+        assertEquals(1000L, buffer.getLong(27, BIG_ENDIAN));
+        assertEquals(1000L, buffer.getLong(35, BIG_ENDIAN));
+        assertEquals(-1L, buffer.getLong(43, BIG_ENDIAN));
+        assertEquals(-1, buffer.getShort(51, BIG_ENDIAN));
+        assertEquals(-1, buffer.getInt(53, BIG_ENDIAN));
+        assertEquals(1, buffer.getInt(57, BIG_ENDIAN));
+        assertArrayEquals(new byte[] { 0x24, 0x00, 0x00, 0x00, 0x01, 0x18 }, Arrays.copyOfRange(batch, 61, 67));
+        assertEquals("Hello, world", buffer.getStringWithoutLengthUtf8(67, 12));
+        assertEquals(0x00, buffer.getByte(79));
+    }
+
+    @Test
+    public void shouldBuildRecordBatchWithKeysAndHeaders()
+    {
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .baseOffset(20L)
+                                     .attributes(0x10)
+                                     .firstTimestamp(1000L)
+                                     .producerId(8L)
+                                     .producerEpoch((short) 1)
+                                     .baseSequence(4)
+                                     .record()
+                                         .key("a")
+                                         .value("one")
+                                         .header("name", "value")
+                                         .build()
+                                     .record()
+                                         .offsetDelta(2)
+                                         .timestampDelta(5L)
+                                         .key(null)
+                                         .valueBytes(null)
+                                         .header("name", null)
+                                         .build()
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(batch);
+        assertEquals(batch.length - 12, buffer.getInt(8, BIG_ENDIAN));
+        assertEquals(crc32c(batch, 21), buffer.getInt(17, BIG_ENDIAN));
+        assertEquals(0x10, buffer.getShort(21, BIG_ENDIAN));
+        assertEquals(2, buffer.getInt(23, BIG_ENDIAN));
+        assertEquals(1005L, buffer.getLong(35, BIG_ENDIAN));
+        assertEquals(8L, buffer.getLong(43, BIG_ENDIAN));
+        assertEquals(1, buffer.getShort(51, BIG_ENDIAN));
+        assertEquals(4, buffer.getInt(53, BIG_ENDIAN));
+        assertEquals(2, buffer.getInt(57, BIG_ENDIAN));
+    }
+
+    @Test
+    public void shouldBuildRecordBatchWithMaxTimestamp()
+    {
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .firstTimestamp(1000L)
+                                     .maxTimestamp(2000L)
+                                     .build();
+
+        DirectBuffer buffer = new UnsafeBuffer(batch);
+        assertEquals(61, batch.length);
+        assertEquals(2000L, buffer.getLong(35, BIG_ENDIAN));
+        assertEquals(0, buffer.getInt(57, BIG_ENDIAN));
+    }
+
+    @Test
+    public void shouldMatchRecordBatch() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .baseOffset(20L)
+                                             .attributes(0x10)
+                                             .producerId(8L)
+                                             .producerEpoch((short) 1)
+                                             .baseSequence(4)
+                                             .record()
+                                                 .key("a")
+                                                 .value("one")
+                                                 .header("name", "value")
+                                                 .build()
+                                             .record()
+                                                 .timestampDelta(5L)
+                                                 .key(null)
+                                                 .value(null)
+                                                 .header("name", null)
+                                                 .build()
+                                             .build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .baseOffset(20L)
+                                     .attributes(0x10)
+                                     .firstTimestamp(1000L)
+                                     .producerId(8L)
+                                     .producerEpoch((short) 1)
+                                     .baseSequence(4)
+                                     .record()
+                                         .key("a")
+                                         .value("one")
+                                         .header("name", "value")
+                                         .build()
+                                     .record()
+                                         .timestampDelta(5L)
+                                         .header("name", null)
+                                         .build()
+                                     .build();
+
+        ByteBuffer byteBuf = ByteBuffer.allocate(batch.length + 4);
+        byteBuf.put(batch).putInt(0).flip();
+
+        assertEquals(2, matcher.match(byteBuf));
+        assertEquals(batch.length, byteBuf.position());
+    }
+
+    @Test
+    public void shouldMatchRecordBatchRecordCount() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .recordCount(1)
+                                             .build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .value("Hello, world")
+                                         .build()
+                                     .build();
+
+        assertEquals(1, matcher.match(ByteBuffer.wrap(batch)));
+    }
+
+    @Test
+    public void shouldNotMatchRecordBatchIncomplete() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch().build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .value("Hello, world")
+                                         .build()
+                                     .build();
+
+        assertNull(matcher.match(ByteBuffer.wrap(batch, 0, 40)));
+        assertNull(matcher.match(ByteBuffer.wrap(batch, 0, batch.length - 1)));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchRecordBatchMagic() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch().build();
+
+        byte[] batch = KafkaFunctions.recordBatch().build();
+        batch[16] = 0x01;
+
+        matcher.match(ByteBuffer.wrap(batch));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchRecordBatchCrc() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch().build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .value("Hello, world")
+                                         .build()
+                                     .build();
+        batch[batch.length - 2] ^= 0x01;
+
+        matcher.match(ByteBuffer.wrap(batch));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchRecordBatchProducerId() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .producerId(8L)
+                                             .build();
+
+        matcher.match(ByteBuffer.wrap(KafkaFunctions.recordBatch().build()));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchRecordBatchRecordValue() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .record()
+                                                 .value("Hello, world")
+                                                 .build()
+                                             .build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .value("Hello, World")
+                                         .build()
+                                     .build();
+
+        matcher.match(ByteBuffer.wrap(batch));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchRecordBatchRecordHeaders() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .record()
+                                                 .header("name", "value")
+                                                 .build()
+                                             .build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .header("name", "other")
+                                         .build()
+                                     .build();
+
+        matcher.match(ByteBuffer.wrap(batch));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchRecordBatchRecordOffsetDelta() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .record()
+                                                 .value("one")
+                                                 .build()
+                                             .record()
+                                                 .value("two")
+                                                 .build()
+                                             .build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .offsetDelta(1)
+                                         .value("one")
+                                         .build()
+                                     .record()
+                                         .offsetDelta(0)
+                                         .value("two")
+                                         .build()
+                                     .build();
+
+        matcher.match(ByteBuffer.wrap(batch));
+    }
+
+    @Test(expected = Exception.class)
+    public void shouldNotMatchRecordBatchRecordTimestampDelta() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .record()
+                                                 .timestampDelta(5L)
+                                                 .value("Hello, world")
+                                                 .build()
+                                             .build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .timestampDelta(6L)
+                                         .value("Hello, world")
+                                         .build()
+                                     .build();
+
+        matcher.match(ByteBuffer.wrap(batch));
+    }
+
+    @Test
+    public void shouldNotMatchRecordBatchTruncated() throws Exception
+    {
+        BytesMatcher matcher = KafkaFunctions.matchRecordBatch()
+                                             .record()
+                                                 .value("Hello, world")
+                                                 .build()
+                                             .build();
+
+        byte[] batch = KafkaFunctions.recordBatch()
+                                     .record()
+                                         .value("Hello, world")
+                                         .build()
+                                     .build();
+
+        byte[] truncated = Arrays.copyOf(batch, batch.length - 4);
+        MutableDirectBuffer buffer = new UnsafeBuffer(truncated);
+        buffer.putInt(8, truncated.length - 12, BIG_ENDIAN);
+        buffer.putInt(17, crc32c(truncated, 21), BIG_ENDIAN);
+
+        try
+        {
+            matcher.match(ByteBuffer.wrap(truncated));
+            fail();
+        }
+        catch (Exception ex)
+        {
+            assertEquals(Exception.class, ex.getClass());
+            assertEquals("Unexpected record batch", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldInvokeSizeofAndAsInt() throws Exception
+    {
+        String expressionText = "${kafka:asInt(60 + kafka:sizeof(kafka:varint(1048576)))}";
+        ValueExpression expression = factory.createValueExpression(ctx, expressionText, Object.class);
+        assertEquals(64, expression.getValue(ctx));
+    }
+
+    private static int crc32c(
+        byte[] bytes,
+        int offset)
+    {
+        final CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, bytes.length - offset);
+        return (int) crc.getValue();
+    }
+
+    @Test
+    public void shouldResolveOffsetTypeHistorical()
+    {
+        assertEquals(-2, KafkaFunctions.offset("HISTORICAL"));
+    }
+
+    @Test
+    public void shouldResolveOffsetTypeLive()
+    {
+        assertEquals(-1, KafkaFunctions.offset("LIVE"));
+    }
+
+    @Test
+    public void shouldResolveOffsetTypeSnapshot()
+    {
+        assertEquals(-3, KafkaFunctions.offset("SNAPSHOT"));
     }
 }
@@ -18,7 +18,6 @@ package org.reaktivity.specification.nukleus.kafka.streams.application;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.rules.RuleChain.outerRule;
 
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
@@ -82,6 +81,15 @@ public class FetchIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/partition.offset.log.start.advanced/client",
+        "${app}/partition.offset.log.start.advanced/server"})
+    public void shouldSkipToLogStartOffsetWhenAdvanced() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/partition.offset.earliest/client",
@@ -209,7 +217,6 @@ public class FetchIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${app}/message.value.gzip/client",
@@ -219,7 +226,6 @@ public class FetchIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${app}/message.value.snappy/client",
@@ -229,7 +235,6 @@ public class FetchIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${app}/message.value.lz4/client",
@@ -239,6 +244,15 @@ public class FetchIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/message.value.zstd/client",
+        "${app}/message.value.zstd/server"})
+    public void shouldReceiveMessageValueZstd() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/message.value.distinct/client",
@@ -248,6 +262,15 @@ public class FetchIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/message.values.batch/client",
+        "${app}/message.values.batch/server"})
+    public void shouldReceiveMessageValuesBatch() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/message.header/client",
@@ -304,6 +327,60 @@ public class FetchIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/filter.key.prefix/client",
+        "${app}/filter.key.prefix/server"})
+    public void shouldReceiveMessagesWithKeyPrefixFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/filter.header.prefix/client",
+        "${app}/filter.header.prefix/server"})
+    public void shouldReceiveMessagesWithHeaderPrefixFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/filter.value/client",
+        "${app}/filter.value/server"})
+    public void shouldReceiveMessagesWithValueFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/filter.value.at/client",
+        "${app}/filter.value.at/server"})
+    public void shouldReceiveMessagesWithValueAtFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/filter.timestamp/client",
+        "${app}/filter.timestamp/server"})
+    public void shouldReceiveMessagesWithTimestampFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/filter.timestamp.with.compaction/client",
+        "${app}/filter.timestamp.with.compaction/server"})
+    public void shouldReceiveMessagesWithTimestampFilterAndCompaction() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/filter.key.and.header/client",
@@ -385,6 +462,24 @@ public class FetchIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/filter.none.json.merge.patch/client",
+        "${app}/filter.none.json.merge.patch/server"})
+    public void shouldReceiveJsonMergePatchMessagesWithNoFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/filter.none.binary.delta/client",
+        "${app}/filter.none.binary.delta/server"})
+    public void shouldReceiveBinaryDeltaMessagesWithNoFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/filter.header.json.patch/client",
@@ -537,4 +632,49 @@ public class FetchIT
     {
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${app}/format.record.batch/client",
+        "${app}/format.record.batch/server"})
+    public void shouldReceiveRecordBatchFormat() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/tuning.low.latency/client",
+        "${app}/tuning.low.latency/server"})
+    public void shouldReceiveMessageValueWithLowLatencyTuning() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/tuning.bulk/client",
+        "${app}/tuning.bulk/server"})
+    public void shouldReceiveMessageValueWithBulkTuning() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/isolation.read.committed/client",
+        "${app}/isolation.read.committed/server"})
+    public void shouldReceiveMessageValuesReadCommitted() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/partition.offset.timestamp/client",
+        "${app}/partition.offset.timestamp/server"})
+    public void shouldRequestPartitionOffsetTimestamp() throws Exception
+    {
+        k3po.finish();
+    }
 }
@@ -72,6 +72,33 @@ public class MergedIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/merged.fetch.filter.key.prefix/client",
+        "${app}/merged.fetch.filter.key.prefix/server"})
+    public void shouldFetchMergedMessagesWithKeyPrefixFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/merged.fetch.filter.header.prefix/client",
+        "${app}/merged.fetch.filter.header.prefix/server"})
+    public void shouldFetchMergedMessagesWithHeaderPrefixFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/merged.fetch.filter.value/client",
+        "${app}/merged.fetch.filter.value/server"})
+    public void shouldFetchMergedMessagesWithValueFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/merged.fetch.filter.key.and.header/client",
@@ -90,6 +117,24 @@ public class MergedIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/merged.fetch.filter.age.live/client",
+        "${app}/merged.fetch.filter.age.live/server"})
+    public void shouldFetchMergedMessagesWithAgeLiveFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/merged.fetch.filter.age.historical/client",
+        "${app}/merged.fetch.filter.age.historical/server"})
+    public void shouldFetchMergedMessagesWithAgeHistoricalFilter() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/merged.fetch.filter.none/client",
@@ -108,6 +153,15 @@ public class MergedIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/merged.fetch.message.values.timestamp.order/client",
+        "${app}/merged.fetch.message.values.timestamp.order/server"})
+    public void shouldFetchMergedMessageValuesInTimestampOrder() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/merged.fetch.partition.offsets.latest/client",
@@ -126,6 +180,24 @@ public class MergedIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/merged.fetch.snapshot.tombstones/client",
+        "${app}/merged.fetch.snapshot.tombstones/server"})
+    public void shouldFetchMergedSnapshotWithoutTombstones() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/merged.fetch.snapshot.key.updated/client",
+        "${app}/merged.fetch.snapshot.key.updated/server"})
+    public void shouldFetchMergedSnapshotWithKeyUpdated() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/merged.fetch.partition.offsets.earliest.overflow/client",
@@ -180,6 +252,24 @@ public class MergedIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/merged.produce.message.values.partitioned/client",
+        "${app}/merged.produce.message.values.partitioned/server"})
+    public void shouldProduceMergedMessageValuesPartitioned() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/merged.produce.message.values.sticky/client",
+        "${app}/merged.produce.message.values.sticky/server"})
+    public void shouldProduceMergedMessageValuesSticky() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/merged.produce.message.flags.incomplete/client",
@@ -250,6 +340,15 @@ public class MergedIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/unmerged.fetch.message.values.timestamp.order/client",
+        "${app}/unmerged.fetch.message.values.timestamp.order/server"})
+    public void shouldFetchUnmergedMessageValuesInTimestampOrder() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/unmerged.fetch.partition.offsets.latest/client",
@@ -456,4 +555,22 @@ public class MergedIT
     {
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${app}/merged.fetch.partition.offsets.timestamp/client",
+        "${app}/merged.fetch.partition.offsets.timestamp/server"})
+    public void shouldFetchMergedPartitionOffsetsTimestamp() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/merged.fetch.partitions.100.filters.56/client",
+        "${app}/merged.fetch.partitions.100.filters.56/server"})
+    public void shouldFetchMergedMessagesWithManyPartitionsAndFilters() throws Exception
+    {
+        k3po.finish();
+    }
 }
@@ -18,7 +18,6 @@ package org.reaktivity.specification.nukleus.kafka.streams.application;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.rules.RuleChain.outerRule;
 
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
@@ -163,7 +162,6 @@ public class ProduceIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${app}/message.value.gzip/client",
@@ -173,7 +171,6 @@ public class ProduceIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${app}/message.value.snappy/client",
@@ -183,7 +180,6 @@ public class ProduceIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${app}/message.value.lz4/client",
@@ -193,6 +189,33 @@ public class ProduceIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${app}/message.values.gzip/client",
+        "${app}/message.values.gzip/server"})
+    public void shouldSendMessageValuesGzip() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/message.values.lz4/client",
+        "${app}/message.values.lz4/server"})
+    public void shouldSendMessageValuesLz4() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/message.value.zstd/client",
+        "${app}/message.value.zstd/server"})
+    public void shouldSendMessageValueZstd() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${app}/message.value.distinct/client",
@@ -246,4 +269,31 @@ public class ProduceIT
     {
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${app}/message.values.batched/client",
+        "${app}/message.values.batched/server"})
+    public void shouldSendMessageValuesBatched() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/message.values.pipelined/client",
+        "${app}/message.values.pipelined/server"})
+    public void shouldSendMessageValuesPipelined() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${app}/message.values.idempotent/client",
+        "${app}/message.values.idempotent/server"})
+    public void shouldSendMessageValuesIdempotent() throws Exception
+    {
+        k3po.finish();
+    }
 }
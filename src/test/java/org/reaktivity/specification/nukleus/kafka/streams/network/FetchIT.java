@@ -18,7 +18,6 @@ package org.reaktivity.specification.nukleus.kafka.streams.network;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.rules.RuleChain.outerRule;
 
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
@@ -181,7 +180,6 @@ public class FetchIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${net}/message.value.gzip/client",
@@ -191,7 +189,6 @@ public class FetchIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${net}/message.value.snappy/client",
@@ -201,7 +198,6 @@ public class FetchIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${net}/message.value.lz4/client",
@@ -211,6 +207,15 @@ public class FetchIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${net}/message.value.zstd/client",
+        "${net}/message.value.zstd/server"})
+    public void shouldReceiveMessageValueZstd() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${net}/message.value.distinct/client",
@@ -264,4 +269,58 @@ public class FetchIT
     {
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${net}/format.record.batch/client",
+        "${net}/format.record.batch/server"})
+    public void shouldReceiveRecordBatchFormat() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/tuning.low.latency/client",
+        "${net}/tuning.low.latency/server"})
+    public void shouldReceiveMessageValueWithLowLatencyTuning() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/tuning.bulk/client",
+        "${net}/tuning.bulk/server"})
+    public void shouldReceiveMessageValueWithBulkTuning() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/isolation.read.committed/client",
+        "${net}/isolation.read.committed/server"})
+    public void shouldReceiveMessageValuesReadCommitted() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.record.batch/client",
+        "${net}/message.values.record.batch/server"})
+    public void shouldReceiveMessageValuesRecordBatch() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.batch/client",
+        "${net}/message.values.batch/server"})
+    public void shouldReceiveMessageValuesBatch() throws Exception
+    {
+        k3po.finish();
+    }
 }
@@ -18,7 +18,6 @@ package org.reaktivity.specification.nukleus.kafka.streams.network;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.rules.RuleChain.outerRule;
 
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
@@ -145,7 +144,24 @@ public class ProduceIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
+    @Test
+    @Specification({
+        "${net}/message.value.100m/client",
+        "${net}/message.value.100m/server"})
+    public void shouldSendMessageValue100m() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.value.random.1m/client",
+        "${net}/message.value.random.1m/server"})
+    public void shouldSendMessageValueRandom1m() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${net}/message.value.gzip/client",
@@ -155,7 +171,6 @@ public class ProduceIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${net}/message.value.snappy/client",
@@ -165,7 +180,6 @@ public class ProduceIT
         k3po.finish();
     }
 
-    @Ignore("TODO")
     @Test
     @Specification({
         "${net}/message.value.lz4/client",
@@ -175,6 +189,33 @@ public class ProduceIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${net}/message.values.gzip/client",
+        "${net}/message.values.gzip/server"})
+    public void shouldSendMessageValuesGzip() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.lz4/client",
+        "${net}/message.values.lz4/server"})
+    public void shouldSendMessageValuesLz4() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.value.zstd/client",
+        "${net}/message.value.zstd/server"})
+    public void shouldSendMessageValueZstd() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${net}/message.value.distinct/client",
@@ -228,4 +269,67 @@ public class ProduceIT
     {
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "${net}/message.values.batched/client",
+        "${net}/message.values.batched/server"})
+    public void shouldSendMessageValuesBatched() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.pipelined/client",
+        "${net}/message.values.pipelined/server"})
+    public void shouldSendMessageValuesPipelined() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.idempotent/client",
+        "${net}/message.values.idempotent/server"})
+    public void shouldSendMessageValuesIdempotent() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.sequence.gap/client",
+        "${net}/message.values.sequence.gap/server"})
+    public void shouldResendMessageValuesAfterSequenceGap() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.sequence.duplicate/client",
+        "${net}/message.values.sequence.duplicate/server"})
+    public void shouldSkipMessageValuesAfterDuplicateSequence() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.transactional/client",
+        "${net}/message.values.transactional/server"})
+    public void shouldSendMessageValuesTransactional() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${net}/message.values.record.batch/client",
+        "${net}/message.values.record.batch/server"})
+    public void shouldSendMessageValuesRecordBatch() throws Exception
+    {
+        k3po.finish();
+    }
 }